@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Compares time-to-first-request of the startup variants of the backend.
+# Needs the database from docker-compose running (docker compose up db) and the variants built beforehand:
+#   ./mvnw package -DskipTests                 -> target/incredible-pack-app.jar     (jvm)
+#   ./mvnw package -Pcds -DskipTests           -> target/application/                (aot, aot-cds)
+#   ./mvnw -Pnative native:compile -DskipTests -> target/incredible-pack-app         (native)
+# Usage: deploy/startup-benchmark.sh [runs]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8081}
+URL="http://localhost:${PORT}/api/v1/resources"
+TARGET_DIR="$(cd "$(dirname "$0")/.." && pwd)/target"
+
+now_ms() { date +%s%3N; }
+
+# Starts the given command and prints the milliseconds until the list endpoint answers
+measure() {
+  local start pid elapsed
+  start=$(now_ms)
+  "$@" --server.port="${PORT}" > /dev/null 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "${URL}"; do
+    if ! kill -0 "${pid}" 2> /dev/null; then
+      echo "failed"
+      return
+    fi
+    sleep 0.01
+  done
+  elapsed=$(( $(now_ms) - start ))
+  kill "${pid}"
+  wait "${pid}" 2> /dev/null || true
+  echo "${elapsed}"
+}
+
+bench() {
+  local name=$1 result
+  shift
+  local results=()
+  for _ in $(seq "${RUNS}"); do
+    result=$(measure "$@")
+    if [[ "${result}" == "failed" ]]; then
+      printf '%-10s failed to start\n' "${name}"
+      return
+    fi
+    results+=("${result}")
+  done
+  local sorted
+  sorted=$(printf '%s\n' "${results[@]}" | sort -n)
+  printf '%-10s min %6s ms   median %6s ms\n' "${name}" \
+    "$(echo "${sorted}" | head -1)" "$(echo "${sorted}" | sed -n "$(( (RUNS + 1) / 2 ))p")"
+}
+
+[[ -f "${TARGET_DIR}/incredible-pack-app.jar" ]] && \
+  bench jvm java -jar "${TARGET_DIR}/incredible-pack-app.jar"
+
+if [[ -f "${TARGET_DIR}/application/application.jsa" ]]; then
+  (cd "${TARGET_DIR}/application" && bench aot java -Dspring.aot.enabled=true -jar incredible-pack-app.jar)
+  (cd "${TARGET_DIR}/application" && bench aot-cds java -XX:SharedArchiveFile=application.jsa \
+    -Dspring.aot.enabled=true -jar incredible-pack-app.jar)
+fi
+
+[[ -x "${TARGET_DIR}/incredible-pack-app" ]] && \
+  bench native "${TARGET_DIR}/incredible-pack-app"
+
+exit 0
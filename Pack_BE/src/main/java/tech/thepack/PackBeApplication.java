@@ -3,7 +3,12 @@ package tech.thepack;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import tech.thepack.core.resource.config.NativeRuntimeHints;
 
+@ImportRuntimeHints(NativeRuntimeHints.class)
+@EnableScheduling
 @ConfigurationPropertiesScan
 @SpringBootApplication
 public class PackBeApplication {
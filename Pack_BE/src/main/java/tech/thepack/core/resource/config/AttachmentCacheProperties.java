@@ -0,0 +1,37 @@
+package tech.thepack.core.resource.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "pack.attachment-cache")
+public class AttachmentCacheProperties {
+    boolean enabled = true;
+    // Total off-heap budget, keep it below -XX:MaxDirectMemorySize
+    DataSize maxTotalSize = DataSize.ofMegabytes(64);
+    // Bigger files are never cached
+    DataSize maxEntrySize = DataSize.ofMegabytes(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxTotalSize() {
+        return maxTotalSize;
+    }
+
+    public void setMaxTotalSize(DataSize maxTotalSize) {
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    public DataSize getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+}
@@ -0,0 +1,36 @@
+package tech.thepack.core.resource.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "pack.attachment-disk-cache")
+public class AttachmentDiskCacheProperties {
+    boolean enabled = true;
+    // Node-local directory, its content is disposable and rebuilt from the database on demand
+    String directory = System.getProperty("java.io.tmpdir") + "/pack-attachment-cache";
+    DataSize maxTotalSize = DataSize.ofGigabytes(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getMaxTotalSize() {
+        return maxTotalSize;
+    }
+
+    public void setMaxTotalSize(DataSize maxTotalSize) {
+        this.maxTotalSize = maxTotalSize;
+    }
+}
@@ -0,0 +1,17 @@
+package tech.thepack.core.resource.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "pack.attachment-metadata")
+public class AttachmentMetadataProperties {
+    // Most resource ids one batch request may ask for, bounds the IN list and the response size
+    int maxBatchSize = 100;
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+}
@@ -6,6 +6,8 @@ import org.springframework.util.unit.DataSize;
 @ConfigurationProperties(prefix = "pack.file-upload")
 public class FileUploadProperties {
     DataSize maxFileSize;
+    // Files of a single upload are read and hashed in parallel on this many threads
+    int processingThreads = 4;
 
     public DataSize getMaxFileSize() {
         return maxFileSize;
@@ -19,4 +21,12 @@ public class FileUploadProperties {
     public void setMaxFileSize(DataSize maxFileSize) {
         this.maxFileSize = maxFileSize;
     }
+
+    public int getProcessingThreads() {
+        return processingThreads;
+    }
+
+    public void setProcessingThreads(int processingThreads) {
+        this.processingThreads = processingThreads;
+    }
 }
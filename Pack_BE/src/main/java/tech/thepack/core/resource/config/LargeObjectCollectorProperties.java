@@ -0,0 +1,46 @@
+package tech.thepack.core.resource.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "pack.lob-collector")
+public class LargeObjectCollectorProperties {
+    boolean enabled = true;
+    int batchSize = 100;
+    // Upper bound of large objects removed per run is batchSize * maxBatchesPerRun
+    int maxBatchesPerRun = 10;
+    Duration pauseBetweenBatches = Duration.ofMillis(500);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    public Duration getPauseBetweenBatches() {
+        return pauseBetweenBatches;
+    }
+
+    public void setPauseBetweenBatches(Duration pauseBetweenBatches) {
+        this.pauseBetweenBatches = pauseBetweenBatches;
+    }
+}
@@ -0,0 +1,22 @@
+package tech.thepack.core.resource.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MigrationConfig {
+
+    // The CDS training run refreshes the context without a database, see the 'cds' profile in pom.xml.
+    // This has to be a runtime switch: with AOT the Flyway beans are fixed at build time.
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${pack.startup.skip-migrations:false}") boolean skipMigrations) {
+        return flyway -> {
+            if (!skipMigrations) {
+                flyway.migrate();
+            }
+        };
+    }
+}
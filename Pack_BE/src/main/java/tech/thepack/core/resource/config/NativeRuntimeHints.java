@@ -0,0 +1,65 @@
+package tech.thepack.core.resource.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import tech.thepack.core.resource.exception.ErrorResponse;
+import tech.thepack.core.resource.model.Attachment;
+import tech.thepack.core.resource.model.CatalogVersion;
+import tech.thepack.core.resource.model.Resource;
+import tech.thepack.web.resource.dto.AttachmentMetadataDTO;
+import tech.thepack.web.resource.dto.ResourceDTO;
+import tech.thepack.web.resource.dto.ResourceFormDataDTO;
+import tech.thepack.web.resource.event.ResourceChangedEvent;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Reflection hints for the native image. Controller signatures are covered by Spring itself,
+ * this adds what is only reached through Hibernate, SSE payloads and exception handlers,
+ * plus the JDBC proxies of {@link tech.thepack.core.resource.monitoring.CountingDataSource}.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] ENTITIES = {Resource.class, Attachment.class, CatalogVersion.class};
+
+    private static final Class<?>[] JSON_TYPES = {
+            ResourceDTO.class,
+            ResourceFormDataDTO.class,
+            AttachmentMetadataDTO.class,
+            ResourceChangedEvent.class,
+            ErrorResponse.class
+    };
+
+    // Each one proxied on its own, forwarding every call to the driver's object through reflection
+    private static final Class<?>[] JDBC_PROXIES = {
+            Connection.class,
+            Statement.class,
+            PreparedStatement.class,
+            CallableStatement.class,
+            ResultSet.class
+    };
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entity : ENTITIES) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        bindingRegistrar.registerReflectionHints(hints.reflection(), JSON_TYPES);
+        for (Class<?> jdbcType : JDBC_PROXIES) {
+            hints.proxies().registerJdkProxy(jdbcType);
+            hints.reflection().registerType(jdbcType, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources().registerPattern("db/migration/*.sql");
+    }
+}
@@ -0,0 +1,48 @@
+package tech.thepack.core.resource.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "pack.resource-events")
+public class ResourceEventsProperties {
+    // How many past events are kept around to replay to clients reconnecting with Last-Event-ID
+    int replayBufferSize = 256;
+    Duration emitterTimeout = Duration.ofMinutes(30);
+    // Threads writing events to clients, a client with a full TCP window holds one until its write fails
+    int deliveryThreads = 4;
+    // Events queued for a single client before it is disconnected, it catches up through Last-Event-ID
+    int maxPendingEvents = 64;
+
+    public int getReplayBufferSize() {
+        return replayBufferSize;
+    }
+
+    public void setReplayBufferSize(int replayBufferSize) {
+        this.replayBufferSize = replayBufferSize;
+    }
+
+    public Duration getEmitterTimeout() {
+        return emitterTimeout;
+    }
+
+    public void setEmitterTimeout(Duration emitterTimeout) {
+        this.emitterTimeout = emitterTimeout;
+    }
+
+    public int getDeliveryThreads() {
+        return deliveryThreads;
+    }
+
+    public void setDeliveryThreads(int deliveryThreads) {
+        this.deliveryThreads = deliveryThreads;
+    }
+
+    public int getMaxPendingEvents() {
+        return maxPendingEvents;
+    }
+
+    public void setMaxPendingEvents(int maxPendingEvents) {
+        this.maxPendingEvents = maxPendingEvents;
+    }
+}
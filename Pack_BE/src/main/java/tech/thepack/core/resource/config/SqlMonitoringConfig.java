@@ -0,0 +1,17 @@
+package tech.thepack.core.resource.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import tech.thepack.core.resource.monitoring.SqlStatementCounter;
+
+@Configuration
+public class SqlMonitoringConfig {
+
+    // Picked up by Spring Boot's applicationTaskExecutor, which runs async request bodies like streamed lists:
+    // their SQL counts towards the request that started them
+    @Bean
+    public TaskDecorator sqlStatementCountingTaskDecorator() {
+        return SqlStatementCounter::propagate;
+    }
+}
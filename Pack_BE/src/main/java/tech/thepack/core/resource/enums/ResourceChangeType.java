@@ -0,0 +1,17 @@
+package tech.thepack.core.resource.enums;
+
+public enum ResourceChangeType {
+    CREATED("resource-created"),
+    UPDATED("resource-updated"),
+    DELETED("resource-deleted");
+
+    private final String eventName;
+
+    ResourceChangeType(String eventName) {
+        this.eventName = eventName;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+}
@@ -1,16 +1,65 @@
 package tech.thepack.core.resource.enums;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 public enum Role {
-    MENTOR_COACH("MENTOR/COACH"),
-    MENTEE_COACHEE("MENTEE/COACHEE");
+    // The bit is what gets stored in resources.roles_mask, never change or reuse one
+    MENTOR_COACH("MENTOR/COACH", 1),
+    MENTEE_COACHEE("MENTEE/COACHEE", 1 << 1);
 
     private final String displayName;
+    private final int bit;
 
-    Role(String displayName){
+    Role(String displayName, int bit){
         this.displayName = displayName;
+        this.bit = bit;
     }
 
     public String getDisplayName() {
         return displayName;
     }
+
+    public int getBit() {
+        return bit;
+    }
+
+    public static int toMask(Collection<Role> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (Role role : roles) {
+                mask |= role.bit;
+            }
+        }
+        return mask;
+    }
+
+    public static Set<Role> fromMask(int mask) {
+        final Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (Role role : values()) {
+            if ((mask & role.bit) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    /**
+     * Every stored mask sharing at least one role with {@code roles}. With only a handful of roles this list is tiny,
+     * and {@code roles_mask IN (...)} can use a plain index where {@code roles_mask & x <> 0} could not.
+     */
+    public static List<Integer> masksMatchingAny(Collection<Role> roles) {
+        final int wanted = toMask(roles);
+        final int all = toMask(EnumSet.allOf(Role.class));
+        final List<Integer> masks = new ArrayList<>();
+        for (int mask = 1; mask <= all; mask++) {
+            if ((mask & ~all) == 0 && (mask & wanted) != 0) {
+                masks.add(mask);
+            }
+        }
+        return masks;
+    }
 }
@@ -0,0 +1,12 @@
+package tech.thepack.core.resource.invalidation;
+
+/**
+ * Implemented by node-local state (caches, the SSE feed) that can go stale through a write on another node.
+ */
+public interface CacheInvalidationHandler {
+
+    void invalidate(InvalidationMessage message);
+
+    // Called when notifications may have been missed, e.g. after the listener reconnected
+    void invalidateAll();
+}
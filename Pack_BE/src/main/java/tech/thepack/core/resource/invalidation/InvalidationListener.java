@@ -0,0 +1,148 @@
+package tech.thepack.core.resource.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import tech.thepack.core.resource.config.CacheInvalidationProperties;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Keeps a dedicated connection (outside the pool) LISTENing on the invalidation channel and forwards every
+ * notification to the local {@link CacheInvalidationHandler}s. Whenever the connection has to be re-established,
+ * notifications may have been lost in between, so all local caches are flushed.
+ */
+@Component
+public class InvalidationListener implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationListener.class);
+
+    private final JdbcConnectionDetails connectionDetails;
+    private final CacheInvalidationProperties properties;
+    private final List<CacheInvalidationHandler> handlers;
+    private volatile boolean running;
+    private Thread thread;
+
+    public InvalidationListener(JdbcConnectionDetails connectionDetails,
+                                CacheInvalidationProperties properties,
+                                List<CacheInvalidationHandler> handlers) {
+        this.connectionDetails = connectionDetails;
+        this.properties = properties;
+        this.handlers = handlers;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "pg-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(connectionDetails.getJdbcUrl(),
+                    connectionDetails.getUsername(), connectionDetails.getPassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + InvalidationPublisher.CHANNEL);
+                }
+                if (connectedBefore) {
+                    logger.info("Invalidation listener reconnected, flushing local caches");
+                    invalidateAll();
+                }
+                connectedBefore = true;
+                receive(connection);
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("Invalidation listener lost its connection: {}", e.getMessage());
+                }
+            }
+            sleep();
+        }
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        final int pollMillis = (int) properties.getPollInterval().toMillis();
+        while (running) {
+            final PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+            if (notifications == null || notifications.length == 0) {
+                // A silently dropped connection would otherwise keep us waiting forever
+                if (!connection.isValid(pollMillis / 1000 + 1)) {
+                    throw new SQLException("Listener connection is no longer valid");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                dispatch(notification.getParameter());
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        final InvalidationMessage message;
+        try {
+            message = InvalidationMessage.fromPayload(payload);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring invalidation notification: {}", e.getMessage());
+            return;
+        }
+        for (CacheInvalidationHandler handler : handlers) {
+            try {
+                handler.invalidate(message);
+            } catch (RuntimeException e) {
+                logger.error("Cache invalidation of {} failed, flushing {}", payload, handler.getClass().getSimpleName(), e);
+                invalidateAll(handler);
+            }
+        }
+    }
+
+    private void invalidateAll() {
+        handlers.forEach(this::invalidateAll);
+    }
+
+    // Handlers may hit the database (the SSE feed catching up), a failure must not end the listener thread
+    private void invalidateAll(CacheInvalidationHandler handler) {
+        try {
+            handler.invalidateAll();
+        } catch (RuntimeException e) {
+            logger.error("Flushing {} failed", handler.getClass().getSimpleName(), e);
+        }
+    }
+
+    private void sleep() {
+        if (!running) {
+            return;
+        }
+        try {
+            Thread.sleep(properties.getReconnectDelay().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
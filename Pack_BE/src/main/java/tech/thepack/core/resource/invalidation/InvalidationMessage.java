@@ -0,0 +1,32 @@
+package tech.thepack.core.resource.invalidation;
+
+/**
+ * What changed, as sent through Postgres NOTIFY. The payload is {@code <KIND>:<id>}, e.g. {@code ATTACHMENT:42}.
+ * For {@link Kind#CATALOG} the id is the catalog version a write committed.
+ */
+public record InvalidationMessage(Kind kind, long id) {
+
+    public enum Kind {
+        CATALOG, ATTACHMENT
+    }
+
+    public static InvalidationMessage catalog(long version) {
+        return new InvalidationMessage(Kind.CATALOG, version);
+    }
+
+    public static InvalidationMessage attachment(long attachmentId) {
+        return new InvalidationMessage(Kind.ATTACHMENT, attachmentId);
+    }
+
+    public String toPayload() {
+        return kind.name() + ":" + id;
+    }
+
+    public static InvalidationMessage fromPayload(String payload) {
+        final int separator = payload.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed invalidation payload: " + payload);
+        }
+        return new InvalidationMessage(Kind.valueOf(payload.substring(0, separator)), Long.parseLong(payload.substring(separator + 1)));
+    }
+}
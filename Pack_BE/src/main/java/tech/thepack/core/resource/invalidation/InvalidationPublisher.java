@@ -0,0 +1,27 @@
+package tech.thepack.core.resource.invalidation;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class InvalidationPublisher {
+
+    static final String CHANNEL = "pack_cache_invalidation";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InvalidationPublisher(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // NOTIFY is transactional: listeners, this node included, only get it once the current transaction commits
+    public void publish(List<InvalidationMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        final String[] payloads = messages.stream().map(InvalidationMessage::toPayload).toArray(String[]::new);
+        jdbcTemplate.queryForList("SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload", CHANNEL, payloads);
+    }
+}
@@ -27,6 +27,10 @@ public class Attachment {
     @Column(name = "file_data", nullable = false)
     private byte[] fileData;
 
+    // SHA-256 of fileData, hex encoded
+    @Column(length = 64)
+    private String checksum;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime uploadedAt;
@@ -75,6 +79,14 @@ public class Attachment {
         this.fileData = fileData;
     }
 
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
     public LocalDateTime getUploadedAt() {
         return uploadedAt;
     }
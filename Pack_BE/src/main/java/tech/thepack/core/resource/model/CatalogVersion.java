@@ -0,0 +1,36 @@
+package tech.thepack.core.resource.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Single-row counter bumped by every catalog write. The row lock taken by the bump is held until commit,
+ * so writers are serialized and versions become visible in the same order they were handed out.
+ * Writers bump it as their last statement, after everything else is flushed, to hold that lock only briefly.
+ */
+@Entity
+@Table(name = "catalog_version")
+public class CatalogVersion {
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long version;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
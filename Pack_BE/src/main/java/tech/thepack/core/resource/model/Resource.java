@@ -1,18 +1,24 @@
 package tech.thepack.core.resource.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import tech.thepack.core.resource.enums.Category;
 import tech.thepack.core.resource.enums.Language;
 import tech.thepack.core.resource.enums.Provider;
 import tech.thepack.core.resource.enums.Role;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "resources")
+@Table(name = "resources", indexes = {
+        @Index(name = "idx_resources_change_version", columnList = "change_version"),
+        @Index(name = "idx_resources_roles_mask", columnList = "roles_mask")
+})
 public class Resource {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "resources_id_seq")
@@ -29,13 +35,19 @@ public class Resource {
     @Enumerated(EnumType.STRING)
     private Provider provider;
 
-    @ElementCollection(targetClass = Role.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "resource_roles", joinColumns = @JoinColumn(name = "resource_id"))
-    @Column(name = "role")
-    @Enumerated(EnumType.STRING)
-    private Set<Role> roles = new HashSet<>();
+    // Catalog version of the last write that touched this resource, see CatalogVersion
+    @ColumnDefault("0")
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+
+    // One bit per Role (see Role#getBit), exposed as Set<Role> through getRoles/setRoles
+    @ColumnDefault("0")
+    @Column(name = "roles_mask", nullable = false)
+    private int rolesMask;
 
+    // SUBSELECT: when listing N resources, the attachments of all of them are loaded in one query
     @OneToMany(mappedBy = "resource", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
     private List<Attachment> attachments = new ArrayList<>();
 
     public Long getId() {
@@ -86,12 +98,21 @@ public class Resource {
         this.provider = provider;
     }
 
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
+    // Read only, the roles live in rolesMask: change them through setRoles
     public Set<Role> getRoles() {
-        return roles;
+        return Collections.unmodifiableSet(Role.fromMask(rolesMask));
     }
 
     public void setRoles(Set<Role> roles) {
-        this.roles = roles;
+        this.rolesMask = Role.toMask(roles);
     }
 
     public void addAttachment(Attachment attachment) {
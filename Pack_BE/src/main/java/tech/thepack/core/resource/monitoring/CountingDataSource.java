@@ -0,0 +1,81 @@
+package tech.thepack.core.resource.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Reports every statement executed and every row read through its connections to {@link SqlStatementCounter}.
+ * unwrap() still reaches the pool and the driver, so Hikari metrics and Postgres specific APIs keep working.
+ */
+public class CountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Set<String> RESULT_SET_METHODS = Set.of("executeQuery", "getResultSet", "getGeneratedKeys");
+
+    public CountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            final Object result = invoke(connection, method, args);
+            return result instanceof Statement statement ? wrapStatement(method.getReturnType(), statement) : result;
+        });
+    }
+
+    private static Object wrapStatement(Class<?> statementType, Statement statement) {
+        return proxy(statementType, statement, (proxy, method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName())) {
+                SqlStatementCounter.statementExecuted();
+            }
+            final Object result = invoke(statement, method, args);
+            return RESULT_SET_METHODS.contains(method.getName()) && result instanceof ResultSet resultSet
+                    ? wrapResultSet(resultSet)
+                    : result;
+        });
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (proxy, method, args) -> {
+            final Object result = invoke(resultSet, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                SqlStatementCounter.rowFetched();
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(CountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
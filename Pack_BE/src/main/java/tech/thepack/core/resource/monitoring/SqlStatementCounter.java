@@ -0,0 +1,86 @@
+package tech.thepack.core.resource.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts JDBC statements and fetched rows on the current thread while a {@link Scope} is open.
+ * Scopes can be nested (a test measuring a request that the request filter measures as well), each one sees
+ * everything executed while it is open. Work handed to other threads, like streamed responses, is only counted
+ * when it was wrapped with {@link #propagate(Runnable)}.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<List<Scope>> OPEN_SCOPES = ThreadLocal.withInitial(ArrayList::new);
+
+    private SqlStatementCounter() {
+    }
+
+    public static Scope open() {
+        final Scope scope = new Scope();
+        OPEN_SCOPES.get().add(scope);
+        return scope;
+    }
+
+    /**
+     * Makes statements {@code task} runs on another thread count towards the scopes open on the calling thread.
+     * Usable as a TaskDecorator.
+     */
+    public static Runnable propagate(Runnable task) {
+        final List<Scope> scopes = List.copyOf(OPEN_SCOPES.get());
+        if (scopes.isEmpty()) {
+            return task;
+        }
+        return () -> {
+            final List<Scope> openScopes = OPEN_SCOPES.get();
+            openScopes.addAll(scopes);
+            try {
+                task.run();
+            } finally {
+                openScopes.removeAll(scopes);
+                if (openScopes.isEmpty()) {
+                    OPEN_SCOPES.remove();
+                }
+            }
+        };
+    }
+
+    static void statementExecuted() {
+        for (Scope scope : OPEN_SCOPES.get()) {
+            scope.statements.increment();
+        }
+    }
+
+    static void rowFetched() {
+        for (Scope scope : OPEN_SCOPES.get()) {
+            scope.rows.increment();
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        // Shared with other threads through propagate
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        private Scope() {
+        }
+
+        public long getStatements() {
+            return statements.sum();
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        @Override
+        public void close() {
+            final List<Scope> scopes = OPEN_SCOPES.get();
+            scopes.remove(this);
+            if (scopes.isEmpty()) {
+                OPEN_SCOPES.remove();
+            }
+        }
+    }
+}
@@ -1,7 +1,33 @@
 package tech.thepack.core.resource.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import tech.thepack.core.resource.model.Attachment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
-}
\ No newline at end of file
+
+    // Metadata columns only, the file content and the owning resources are never loaded
+    @Query("select a.resource.id as resourceId, a.id as id, a.fileName as fileName, a.fileType as fileType, " +
+            "a.fileSize as fileSize, a.uploadedAt as uploadedAt " +
+            "from Attachment a where a.resource.id in :resourceIds order by a.resource.id, a.id")
+    List<AttachmentMetadataView> findMetadataByResourceIdIn(@Param("resourceIds") Collection<Long> resourceIds);
+
+    interface AttachmentMetadataView {
+        Long getResourceId();
+
+        Long getId();
+
+        String getFileName();
+
+        String getFileType();
+
+        Long getFileSize();
+
+        LocalDateTime getUploadedAt();
+    }
+}
@@ -0,0 +1,20 @@
+package tech.thepack.core.resource.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import tech.thepack.core.resource.model.CatalogVersion;
+
+import java.util.Optional;
+
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, Long> {
+
+    @Query("select c.version from CatalogVersion c where c.id = " + CatalogVersion.SINGLETON_ID)
+    Optional<Long> findCurrentVersion();
+
+    // Upsert so the very first write also works on an empty table
+    @Query(value = """
+            INSERT INTO catalog_version (id, version) VALUES (1, 1)
+            ON CONFLICT (id) DO UPDATE SET version = catalog_version.version + 1
+            RETURNING version""", nativeQuery = true)
+    long incrementAndGet();
+}
@@ -0,0 +1,68 @@
+package tech.thepack.core.resource.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Postgres large objects behind {@code attachments.file_data}. Deleting an attachment row does not remove its
+ * large object, those left over are the orphans below. Sizes are read with lo_lseek64 because pg_largeobject itself
+ * is not readable by regular users.
+ */
+@Repository
+public class LargeObjectRepository {
+
+    private static final String ORPHANED = """
+            FROM pg_largeobject_metadata m
+            WHERE NOT EXISTS (SELECT 1 FROM attachments a WHERE a.file_data = m.oid)
+            """;
+    // INV_READ
+    private static final String SIZE_OF_OID = "lo_lseek64(lo_open(m.oid, 262144), 0, 2)";
+    // Arbitrary key shared by all replicas, only one of them collects at a time
+    private static final long COLLECTOR_LOCK_KEY = 7_263_514_002L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LargeObjectRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Held until the surrounding transaction ends
+    public boolean tryLockCollector() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, COLLECTOR_LOCK_KEY));
+    }
+
+    public int deleteOrphaned(int limit) {
+        final Integer deleted = jdbcTemplate.queryForObject(
+                "SELECT count(lo_unlink(o.oid)) FROM (SELECT m.oid " + ORPHANED + " LIMIT ?) o", Integer.class, limit);
+        return deleted != null ? deleted : 0;
+    }
+
+    public OrphanedUsage sumOrphaned() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) AS objects, COALESCE(sum(" + SIZE_OF_OID + "), 0) AS bytes " + ORPHANED,
+                (rs, rowNum) -> new OrphanedUsage(rs.getLong("objects"), rs.getLong("bytes")));
+    }
+
+    public List<FileTypeUsage> sumLiveByFileType() {
+        return jdbcTemplate.query("""
+                        SELECT file_type, count(*) AS attachments, COALESCE(sum(file_size), 0) AS bytes
+                        FROM attachments
+                        GROUP BY file_type
+                        ORDER BY bytes DESC""",
+                (rs, rowNum) -> new FileTypeUsage(rs.getString("file_type"), rs.getLong("attachments"), rs.getLong("bytes")));
+    }
+
+    public long countDeadAttachmentTuples() {
+        final List<Long> deadTuples = jdbcTemplate.queryForList(
+                "SELECT n_dead_tup FROM pg_stat_user_tables WHERE relname = 'attachments'", Long.class);
+        return deadTuples.isEmpty() ? 0 : deadTuples.get(0);
+    }
+
+    public record OrphanedUsage(long objects, long bytes) {
+    }
+
+    public record FileTypeUsage(String fileType, long attachments, long bytes) {
+    }
+}
@@ -1,8 +1,38 @@
 package tech.thepack.core.resource.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import tech.thepack.core.resource.model.Resource;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 public interface ResourceRepository extends JpaRepository<Resource, Long> {
 
+    int STREAM_FETCH_SIZE = 100;
+
+    // Backed by a server-side cursor, must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("select r from Resource r order by r.id")
+    Stream<Resource> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("select r from Resource r where r.changeVersion > :since order by r.changeVersion")
+    Stream<Resource> streamChangedSince(@Param("since") long since);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("select r from Resource r where r.rolesMask in :masks and r.changeVersion > :since order by r.id")
+    Stream<Resource> streamByRolesMaskIn(@Param("masks") Collection<Integer> masks, @Param("since") long since);
+
+    List<Resource> findByChangeVersionGreaterThanOrderByChangeVersionAsc(long changeVersion);
+
+    // masks from Role.masksMatchingAny, an IN list the roles_mask index can serve
+    @Query("select r from Resource r where r.rolesMask in :masks and r.changeVersion > :since order by r.id")
+    List<Resource> findByRolesMaskIn(@Param("masks") Collection<Integer> masks, @Param("since") long since);
+
 }
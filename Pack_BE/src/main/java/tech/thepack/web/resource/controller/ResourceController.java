@@ -1,28 +1,54 @@
 package tech.thepack.web.resource.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
-import tech.thepack.core.resource.model.Attachment;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.thepack.core.resource.enums.Role;
+import tech.thepack.core.resource.repository.ResourceRepository;
 import tech.thepack.web.resource.dto.AttachmentMetadataDTO;
 import tech.thepack.web.resource.dto.ResourceDTO;
 import tech.thepack.web.resource.dto.ResourceFormDataDTO;
 import tech.thepack.web.resource.facade.ResourceFacade;
+import tech.thepack.web.resource.storage.AttachmentContent;
+import tech.thepack.web.resource.storage.FileAttachmentContent;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("api/v1/resources")
 public class ResourceController {
 
+    // Tomcat's sendfile protocol, as used by its DefaultServlet
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final ResourceFacade facade;
+    private final ObjectMapper objectMapper;
 
-    public ResourceController(ResourceFacade facade) {
+    public ResourceController(ResourceFacade facade, ObjectMapper objectMapper) {
         this.facade = facade;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -35,9 +61,71 @@ public class ResourceController {
                 .body(resource);
     }
 
+    // The weak ETag is the catalog version, so an unchanged catalog costs a header comparison instead of a full listing.
+    // With ?since=<version> only the resources written after that version are returned,
+    // with ?role=<role> (repeatable) only those having at least one of the roles.
     @GetMapping
-    public ResponseEntity<List<ResourceDTO>> listAll() {
-        return ResponseEntity.ok(this.facade.listAll());
+    public ResponseEntity<List<ResourceDTO>> listAll(@RequestParam(value = "since", required = false) Long since,
+                                                     @RequestParam(value = "role", required = false) Set<Role> roles,
+                                                     WebRequest webRequest) {
+        final String eTag = catalogETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        final List<ResourceDTO> resources;
+        if (roles != null && !roles.isEmpty()) {
+            resources = this.facade.listByRoles(roles, since);
+        } else if (since != null) {
+            resources = this.facade.listChangedSince(since);
+        } else {
+            resources = this.facade.listAll();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(resources);
+    }
+
+    // Same JSON array and filters as listAll, but written element by element while the resources are read from a database cursor,
+    // so memory use and time to first byte don't grow with the catalog
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestParam(value = "since", required = false) Long since,
+                                                           @RequestParam(value = "role", required = false) Set<Role> roles,
+                                                           WebRequest webRequest) {
+        final String eTag = catalogETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        final StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(StreamUtils.nonClosing(outputStream))) {
+                generator.writeStartArray();
+                final int[] written = {0};
+                this.facade.streamAll(since, roles, resource -> {
+                    try {
+                        generator.writeObject(resource);
+                        if (++written[0] % ResourceRepository.STREAM_FETCH_SIZE == 1) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    // EventSource cannot set Last-Event-ID on its first connection, so the catalog version of the list the client holds
+    // (its ETag) comes as ?lastEventId. On reconnects the browser sends the header, which is newer and wins.
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamResourceChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        return this.facade.subscribeToResourceChanges(lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam);
     }
 
     @GetMapping("/{id}")
@@ -52,22 +140,64 @@ public class ResourceController {
         return ResponseEntity.ok(attachments);
     }
 
+    // Attachment metadata of several resources (?resourceIds=1,2,3) in one query, keyed by resource id
+    @GetMapping("/attachments")
+    public ResponseEntity<Map<Long, List<AttachmentMetadataDTO>>> listAttachmentsForResources(
+            @RequestParam("resourceIds") List<Long> resourceIds) {
+        return ResponseEntity.ok(facade.getAttachmentsMetadata(resourceIds));
+    }
+
     @GetMapping("/attachments/{attachmentId}/download")
-    public ResponseEntity<byte[]> downloadAttachment(@PathVariable("attachmentId") Long attachmentId) {
-        final Attachment attachment = this.facade.getAttachmentFile(attachmentId);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(attachment.getFileType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + attachment.getFileName() + "\"")
-                .body(attachment.getFileData());
+    public void downloadAttachment(@PathVariable("attachmentId") Long attachmentId,
+                                   HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serveAttachment(this.facade.getAttachmentContent(attachmentId), "attachment", request, response);
     }
 
     @GetMapping("/attachments/{attachmentId}/view")
-    public ResponseEntity<byte[]> viewAttachment(@PathVariable("attachmentId") Long attachmentId) {
-        final Attachment attachment = this.facade.getAttachmentFile(attachmentId);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(attachment.getFileType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + attachment.getFileName() + "\"")
-                .body(attachment.getFileData());
+    public void viewAttachment(@PathVariable("attachmentId") Long attachmentId,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serveAttachment(this.facade.getAttachmentContent(attachmentId), "inline", request, response);
+    }
+
+    // Written on the request thread on purpose: an async body would fall under spring.mvc.async.request-timeout,
+    // which is sized for list streaming and would cut long downloads on slow links off
+    private void serveAttachment(AttachmentContent content, String disposition,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (content) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(content.fileType());
+            response.setContentLengthLong(content.size());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition + "; filename=\"" + content.fileName() + "\"");
+            if (HttpMethod.HEAD.matches(request.getMethod())) {
+                return;
+            }
+            if (content instanceof FileAttachmentContent file && sendFile(file, request)) {
+                return;
+            }
+            content.writeTo(response.getOutputStream());
+        }
+    }
+
+    // Hands the file to Tomcat, which sends it from the page cache (sendfile) once the request returns, no copy through the heap.
+    // The entry was just touched, so LRU eviction won't delete it in between, only an invalidation could.
+    private static boolean sendFile(FileAttachmentContent file, HttpServletRequest request) {
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            return false;
+        }
+        final String fileName;
+        try {
+            fileName = file.path().toRealPath().toString();
+        } catch (IOException e) {
+            // Evicted in the meantime, the open channel still has the bytes
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME, fileName);
+        request.setAttribute(SENDFILE_START, 0L);
+        request.setAttribute(SENDFILE_END, file.size());
+        return true;
     }
 
+    private String catalogETag() {
+        return "W/\"%d\"".formatted(this.facade.getCatalogVersion());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package tech.thepack.web.resource.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tech.thepack.web.resource.dto.StorageStatisticsDTO;
+import tech.thepack.web.resource.facade.StorageFacade;
+
+// Outside api/v1 on purpose: nginx only proxies api/v1, so this is reachable from inside the compose network only
+@RestController
+@RequestMapping("admin/storage")
+public class StorageAdminController {
+
+    private final StorageFacade facade;
+
+    public StorageAdminController(StorageFacade facade) {
+        this.facade = facade;
+    }
+
+    @GetMapping
+    public ResponseEntity<StorageStatisticsDTO> getStatistics() {
+        return ResponseEntity.ok(this.facade.getStatistics());
+    }
+}
@@ -0,0 +1,37 @@
+package tech.thepack.web.resource.dto;
+
+public class FileTypeStorageDTO {
+    private String fileType;
+    private long attachmentCount;
+    private long bytes;
+
+    public FileTypeStorageDTO(String fileType, long attachmentCount, long bytes) {
+        this.fileType = fileType;
+        this.attachmentCount = attachmentCount;
+        this.bytes = bytes;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    public long getAttachmentCount() {
+        return attachmentCount;
+    }
+
+    public void setAttachmentCount(long attachmentCount) {
+        this.attachmentCount = attachmentCount;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+}
@@ -29,6 +29,7 @@ public class ResourceDTO {
     private String fileType;
     private int attachmentCount;
     private List<AttachmentMetadataDTO> attachments;
+    private long changeVersion;
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -82,4 +83,12 @@ public class ResourceDTO {
     public void setAttachments(List<AttachmentMetadataDTO> attachments) {
         this.attachments = attachments;
     }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
 }
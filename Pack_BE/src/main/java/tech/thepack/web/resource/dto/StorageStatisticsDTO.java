@@ -0,0 +1,71 @@
+package tech.thepack.web.resource.dto;
+
+import java.util.List;
+
+public class StorageStatisticsDTO {
+    private long liveAttachmentCount;
+    private long liveBytes;
+    private long orphanedObjectCount;
+    private long orphanedBytes;
+    // Left behind by deleted/updated attachment rows until vacuum runs
+    private long deadAttachmentTuples;
+    private List<FileTypeStorageDTO> byFileType;
+
+    public StorageStatisticsDTO(long liveAttachmentCount, long liveBytes, long orphanedObjectCount, long orphanedBytes,
+                                long deadAttachmentTuples, List<FileTypeStorageDTO> byFileType) {
+        this.liveAttachmentCount = liveAttachmentCount;
+        this.liveBytes = liveBytes;
+        this.orphanedObjectCount = orphanedObjectCount;
+        this.orphanedBytes = orphanedBytes;
+        this.deadAttachmentTuples = deadAttachmentTuples;
+        this.byFileType = byFileType;
+    }
+
+    public long getLiveAttachmentCount() {
+        return liveAttachmentCount;
+    }
+
+    public void setLiveAttachmentCount(long liveAttachmentCount) {
+        this.liveAttachmentCount = liveAttachmentCount;
+    }
+
+    public long getLiveBytes() {
+        return liveBytes;
+    }
+
+    public void setLiveBytes(long liveBytes) {
+        this.liveBytes = liveBytes;
+    }
+
+    public long getOrphanedObjectCount() {
+        return orphanedObjectCount;
+    }
+
+    public void setOrphanedObjectCount(long orphanedObjectCount) {
+        this.orphanedObjectCount = orphanedObjectCount;
+    }
+
+    public long getOrphanedBytes() {
+        return orphanedBytes;
+    }
+
+    public void setOrphanedBytes(long orphanedBytes) {
+        this.orphanedBytes = orphanedBytes;
+    }
+
+    public long getDeadAttachmentTuples() {
+        return deadAttachmentTuples;
+    }
+
+    public void setDeadAttachmentTuples(long deadAttachmentTuples) {
+        this.deadAttachmentTuples = deadAttachmentTuples;
+    }
+
+    public List<FileTypeStorageDTO> getByFileType() {
+        return byFileType;
+    }
+
+    public void setByFileType(List<FileTypeStorageDTO> byFileType) {
+        this.byFileType = byFileType;
+    }
+}
@@ -0,0 +1,32 @@
+package tech.thepack.web.resource.event;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tech.thepack.core.resource.invalidation.InvalidationMessage;
+import tech.thepack.core.resource.invalidation.InvalidationPublisher;
+
+import java.util.List;
+
+/**
+ * Tells every node, this one included, which catalog version a write committed, so each of them streams the change
+ * to its own SSE clients. Runs before commit on purpose: the NOTIFY joins the writing transaction,
+ * so Postgres delivers it exactly when, and only if, that commits.
+ * Newly created attachments are not announced, no node can have cached them yet.
+ */
+@Component
+public class ResourceChangeInvalidationListener {
+
+    private final InvalidationPublisher invalidationPublisher;
+
+    public ResourceChangeInvalidationListener(InvalidationPublisher invalidationPublisher) {
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onResourceChanged(ResourceChangedEvent event) {
+        if (event.resource() != null) {
+            invalidationPublisher.publish(List.of(InvalidationMessage.catalog(event.resource().getChangeVersion())));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package tech.thepack.web.resource.event;
+
+import tech.thepack.core.resource.enums.ResourceChangeType;
+import tech.thepack.web.resource.dto.ResourceDTO;
+
+/**
+ * Published inside the writing transaction, delivered to listeners only once it commits.
+ * {@code resource} is null for {@link ResourceChangeType#DELETED}.
+ */
+public record ResourceChangedEvent(
+        ResourceChangeType type,
+        Long resourceId,
+        ResourceDTO resource
+) {
+    public static ResourceChangedEvent created(ResourceDTO resource) {
+        return new ResourceChangedEvent(ResourceChangeType.CREATED, resource.getId(), resource);
+    }
+}
@@ -3,24 +3,39 @@ package tech.thepack.web.resource.facade;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import tech.thepack.core.resource.model.Attachment;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tech.thepack.core.resource.enums.Role;
 import tech.thepack.web.resource.dto.AttachmentMetadataDTO;
 import tech.thepack.web.resource.dto.ResourceDTO;
 import tech.thepack.web.resource.dto.ResourceFormDataDTO;
 import tech.thepack.web.resource.mappers.ResourceMapper;
+import tech.thepack.web.resource.service.AttachmentContentService;
+import tech.thepack.web.resource.service.ResourceEventStreamService;
 import tech.thepack.web.resource.service.ResourceService;
+import tech.thepack.web.resource.storage.AttachmentContent;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Transactional
 @Service
 public class ResourceFacade {
     private final ResourceService resourceService;
     private final ResourceMapper resourceMapper;
+    private final ResourceEventStreamService resourceEventStreamService;
+    private final AttachmentContentService attachmentContentService;
 
-    public ResourceFacade(ResourceService resourceService, ResourceMapper resourceMapper) {
+    public ResourceFacade(ResourceService resourceService,
+                          ResourceMapper resourceMapper,
+                          ResourceEventStreamService resourceEventStreamService,
+                          AttachmentContentService attachmentContentService) {
         this.resourceService = resourceService;
         this.resourceMapper = resourceMapper;
+        this.resourceEventStreamService = resourceEventStreamService;
+        this.attachmentContentService = attachmentContentService;
     }
 
     public ResourceDTO save(ResourceFormDataDTO resourceFormDataDTO, List<MultipartFile> files) {
@@ -31,15 +46,42 @@ public class ResourceFacade {
         return resourceService.listAll();
     }
 
+    public void streamAll(Long since, Set<Role> roles, Consumer<ResourceDTO> consumer) {
+        resourceService.streamAll(since, roles, consumer);
+    }
+
+    public List<ResourceDTO> listChangedSince(long version) {
+        return resourceService.listChangedSince(version);
+    }
+
+    public List<ResourceDTO> listByRoles(Set<Role> roles, Long since) {
+        return resourceService.listByRoles(roles, since);
+    }
+
+    public long getCatalogVersion() {
+        return resourceService.getCatalogVersion();
+    }
+
     public ResourceDTO findByIdAndConvertToDto(long id) {
         return resourceMapper.toDto(resourceService.findById(id));
     }
 
-    public Attachment getAttachmentFile(Long attachmentId) {
-        return this.resourceService.getAttachmentFile(attachmentId);
+    // No surrounding transaction, cached attachments are served without a database connection
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public AttachmentContent getAttachmentContent(Long attachmentId) {
+        return this.attachmentContentService.getContent(attachmentId);
     }
 
     public List<AttachmentMetadataDTO> getAttachmentsMetadata(Long resourceId) {
         return this.resourceService.getAttachmentsMetadata(resourceId);
     }
+
+    public Map<Long, List<AttachmentMetadataDTO>> getAttachmentsMetadata(Collection<Long> resourceIds) {
+        return this.resourceService.getAttachmentsMetadata(resourceIds);
+    }
+
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public SseEmitter subscribeToResourceChanges(String lastEventId) {
+        return this.resourceEventStreamService.subscribe(lastEventId);
+    }
 }
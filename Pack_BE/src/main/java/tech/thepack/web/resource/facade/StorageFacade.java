@@ -0,0 +1,18 @@
+package tech.thepack.web.resource.facade;
+
+import org.springframework.stereotype.Service;
+import tech.thepack.web.resource.dto.StorageStatisticsDTO;
+import tech.thepack.web.resource.service.StorageService;
+
+@Service
+public class StorageFacade {
+    private final StorageService storageService;
+
+    public StorageFacade(StorageService storageService) {
+        this.storageService = storageService;
+    }
+
+    public StorageStatisticsDTO getStatistics() {
+        return storageService.getStatistics();
+    }
+}
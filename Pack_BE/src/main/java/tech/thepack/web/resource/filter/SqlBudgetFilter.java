@@ -0,0 +1,78 @@
+package tech.thepack.web.resource.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.thepack.core.resource.config.SqlBudgetProperties;
+import tech.thepack.core.resource.monitoring.SqlStatementCounter;
+
+import java.io.IOException;
+
+// Flags requests that run more SQL than pack.sql-budget allows, the usual symptom of an N+1 regression.
+// Async requests (streamed lists) are checked when they complete, their body's SQL included.
+@Component
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlBudgetFilter.class);
+
+    private final SqlBudgetProperties properties;
+
+    public SqlBudgetFilter(SqlBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // The body runs on another thread (see SqlMonitoringConfig), the budget is checked once it is done
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        checkBudget(request, scope);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                checkBudget(request, scope);
+            }
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        if (scope.getStatements() > properties.getMaxStatements() || scope.getRows() > properties.getMaxRows()) {
+            logger.warn("SQL budget exceeded by {} {}: {} statements (budget {}), {} rows (budget {})",
+                    request.getMethod(), request.getRequestURI(),
+                    scope.getStatements(), properties.getMaxStatements(),
+                    scope.getRows(), properties.getMaxRows());
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("{} {}: {} statements, {} rows", request.getMethod(), request.getRequestURI(),
+                    scope.getStatements(), scope.getRows());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package tech.thepack.web.resource.mappers;
 
 import org.mapstruct.Mapper;
 import tech.thepack.core.resource.model.Attachment;
+import tech.thepack.core.resource.repository.AttachmentRepository.AttachmentMetadataView;
 import tech.thepack.web.resource.dto.AttachmentMetadataDTO;
 
 import java.util.List;
@@ -10,4 +11,5 @@ import java.util.List;
 public interface AttachmentMapper {
     AttachmentMetadataDTO toMetadataDto(Attachment attachment);
     List<AttachmentMetadataDTO> toMetadataDtoList(List<Attachment> attachments);
+    AttachmentMetadataDTO toMetadataDto(AttachmentMetadataView attachment);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package tech.thepack.web.resource.mappers;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 import org.mapstruct.ReportingPolicy;
 import tech.thepack.core.resource.model.Resource;
 import tech.thepack.web.resource.dto.ResourceDTO;
@@ -18,5 +19,12 @@ public interface ResourceMapper {
     @Mapping(target = "attachmentCount", expression = "java(resource.getAttachments() != null ? resource.getAttachments().size() : 0)")
     ResourceDTO toDto(Resource resource);
 
+    // For callers that load the attachment metadata themselves, leaves Resource.attachments untouched.
+    // Named, so toDtoList keeps using toDto for its elements
+    @Named("withoutAttachments")
+    @Mapping(target = "attachments", ignore = true)
+    @Mapping(target = "attachmentCount", ignore = true)
+    ResourceDTO toDtoWithoutAttachments(Resource resource);
+
     Resource toEntity(ResourceFormDataDTO dto);
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package tech.thepack.web.resource.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import tech.thepack.core.resource.model.Attachment;
+import tech.thepack.web.resource.storage.AttachmentContent;
+import tech.thepack.web.resource.storage.BufferAttachmentContent;
+import tech.thepack.web.resource.storage.DiskAttachmentCache;
+import tech.thepack.web.resource.storage.FileAttachmentContent;
+import tech.thepack.web.resource.storage.HotAttachmentCache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Resolves attachment content for serving: off-heap cache, then local disk, then the database.
+ * Deliberately not transactional: cache hits must not touch the database,
+ * only misses go through {@link ResourceService} and its transaction.
+ */
+@Service
+public class AttachmentContentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentContentService.class);
+
+    private final ResourceService resourceService;
+    private final HotAttachmentCache hotAttachmentCache;
+    private final DiskAttachmentCache diskAttachmentCache;
+
+    public AttachmentContentService(ResourceService resourceService,
+                                    HotAttachmentCache hotAttachmentCache,
+                                    DiskAttachmentCache diskAttachmentCache) {
+        this.resourceService = resourceService;
+        this.hotAttachmentCache = hotAttachmentCache;
+        this.diskAttachmentCache = diskAttachmentCache;
+    }
+
+    public AttachmentContent getContent(long attachmentId) {
+        return hotAttachmentCache.get(attachmentId)
+                .or(() -> diskAttachmentCache.get(attachmentId).map(content -> promote(attachmentId, content)))
+                .orElseGet(() -> load(attachmentId));
+    }
+
+    // Small files found on disk get their chance to enter the off-heap cache
+    private AttachmentContent promote(long attachmentId, FileAttachmentContent content) {
+        if (!hotAttachmentCache.accepts(content.size())) {
+            return content;
+        }
+        try {
+            final byte[] data = content.readAllBytes();
+            return hotAttachmentCache.offer(attachmentId, content.fileName(), content.fileType(), data)
+                    .orElseGet(() -> new BufferAttachmentContent(content.fileName(), content.fileType(), ByteBuffer.wrap(data)));
+        } catch (IOException e) {
+            logger.warn("Could not read cached attachment {}, reloading it: {}", attachmentId, e.getMessage());
+            diskAttachmentCache.evict(attachmentId);
+            return load(attachmentId);
+        }
+    }
+
+    private AttachmentContent load(long attachmentId) {
+        final Attachment attachment = resourceService.getAttachmentFile(attachmentId);
+        final byte[] data = attachment.getFileData();
+        diskAttachmentCache.store(attachmentId, attachment.getFileName(), attachment.getFileType(), data, attachment.getChecksum());
+        return hotAttachmentCache.offer(attachmentId, attachment.getFileName(), attachment.getFileType(), data)
+                .orElseGet(() -> new BufferAttachmentContent(attachment.getFileName(), attachment.getFileType(), ByteBuffer.wrap(data)));
+    }
+}
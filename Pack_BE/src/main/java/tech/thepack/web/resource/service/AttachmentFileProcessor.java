@@ -0,0 +1,134 @@
+package tech.thepack.web.resource.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+import tech.thepack.core.resource.config.FileUploadProperties;
+import tech.thepack.core.resource.exception.AttachmentStorageException;
+import tech.thepack.core.resource.exception.FileSizeLimitExceededException;
+import tech.thepack.core.resource.model.Attachment;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Turns the files of one upload into {@link Attachment}s, reading, size-checking and hashing them in parallel.
+ * Nothing is persisted here, so a failure leaves nothing behind: the first failing file aborts the whole upload.
+ */
+@Component
+public class AttachmentFileProcessor implements DisposableBean {
+
+    private final FileUploadProperties fileUploadProperties;
+    // Private on purpose, exposing an Executor bean would replace Spring Boot's applicationTaskExecutor
+    private final ThreadPoolExecutor executor;
+
+    public AttachmentFileProcessor(FileUploadProperties fileUploadProperties) {
+        this.fileUploadProperties = fileUploadProperties;
+        final int threads = fileUploadProperties.getProcessingThreads();
+        final AtomicInteger threadCount = new AtomicInteger();
+        // Bounded: when every thread is busy the request thread processes the file itself
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "attachment-upload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public List<Attachment> toAttachments(List<MultipartFile> files) {
+        // Cheap check first, so an oversized file fails the upload before anything is read
+        for (MultipartFile file : files) {
+            checkSize(file.getOriginalFilename(), file.getSize());
+        }
+
+        // FutureTasks, unlike CompletableFutures, interrupt a running read when cancelled
+        final ExecutorCompletionService<Attachment> completion = new ExecutorCompletionService<>(executor);
+        final AtomicReference<RuntimeException> firstFailure = new AtomicReference<>();
+        final List<Future<Attachment>> attachments = files.stream()
+                .map(file -> completion.submit(() -> toAttachment(file, firstFailure)))
+                .toList();
+        try {
+            for (int i = 0; i < attachments.size() && firstFailure.get() == null; i++) {
+                completion.take().get();
+            }
+        } catch (ExecutionException e) {
+            firstFailure.compareAndSet(null, new AttachmentStorageException("Could not store the uploaded files. Please try again!", e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            firstFailure.compareAndSet(null, new AttachmentStorageException("Upload interrupted", e));
+        }
+        if (firstFailure.get() != null) {
+            attachments.forEach(attachment -> attachment.cancel(true));
+            throw firstFailure.get();
+        }
+        // Same order as the uploaded files
+        return attachments.stream().map(AttachmentFileProcessor::getDone).toList();
+    }
+
+    // Files not started yet when another one failed are skipped, interrupting a blocked read is not always possible
+    private Attachment toAttachment(MultipartFile file, AtomicReference<RuntimeException> firstFailure) {
+        if (firstFailure.get() != null) {
+            return null;
+        }
+        try {
+            return toAttachment(file);
+        } catch (RuntimeException e) {
+            firstFailure.compareAndSet(null, e);
+            throw e;
+        }
+    }
+
+    private static Attachment getDone(Future<Attachment> attachment) {
+        try {
+            return attachment.get();
+        } catch (InterruptedException | ExecutionException e) {
+            // Unreachable, every future completed successfully above
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Attachment toAttachment(MultipartFile file) {
+        try {
+            final byte[] data = file.getBytes();
+            checkSize(file.getOriginalFilename(), data.length);
+            final Attachment attachment = new Attachment();
+            attachment.setFileName(StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename())));
+            attachment.setFileType(file.getContentType());
+            attachment.setFileSize((long) data.length);
+            attachment.setChecksum(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data)));
+            attachment.setFileData(data);
+            return attachment;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new AttachmentStorageException("Could not store file " + file.getOriginalFilename() + ". Please try again!", e);
+        }
+    }
+
+    private void checkSize(String fileName, long size) {
+        if (size > fileUploadProperties.getMaxFileSize().toBytes()) {
+            throw new FileSizeLimitExceededException(
+                    "File " + fileName + " size exceeds the limit of " + fileUploadProperties.getStringMaxSizeInMB()
+            );
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,65 @@
+package tech.thepack.web.resource.service;
+
+import tech.thepack.web.resource.event.ResourceChangedEvent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The last {@code capacity} catalog events for clients reconnecting with {@code Last-Event-ID}. Event ids are
+ * catalog versions: increasing, shared by all nodes, with gaps where a writing transaction rolled back.
+ * Not thread safe, {@link ResourceEventStreamService} guards it.
+ */
+final class ResourceEventReplayBuffer {
+
+    private final int capacity;
+    private final Deque<BufferedEvent> events = new ArrayDeque<>();
+    // Newest version not in the buffer (dropped, or from before this node started): a client that has seen it
+    // can be caught up from the buffer alone
+    private long floorId;
+    private long lastId;
+
+    ResourceEventReplayBuffer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // The catalog version when this node started streaming, nothing before it can be replayed
+    void startAt(long version) {
+        floorId = version;
+        lastId = version;
+    }
+
+    // Versions arrive in commit order, which is version order: incrementing the catalog version locks its row
+    BufferedEvent append(long version, ResourceChangedEvent event) {
+        if (version <= lastId) {
+            throw new IllegalArgumentException("Version " + version + " is not after " + lastId);
+        }
+        final BufferedEvent bufferedEvent = new BufferedEvent(version, event);
+        lastId = version;
+        events.addLast(bufferedEvent);
+        while (events.size() > capacity) {
+            floorId = events.removeFirst().id();
+        }
+        return bufferedEvent;
+    }
+
+    /**
+     * The buffered events after {@code clientLastEventId}, or null when some of them are not in the buffer anymore
+     * (or never were), the client has to resync then. A client ahead of this node, having seen a version on another
+     * node that has not reached this one yet, gets nothing and is sent the newer events only.
+     */
+    List<BufferedEvent> eventsAfter(long clientLastEventId) {
+        if (clientLastEventId < floorId) {
+            return null;
+        }
+        return events.stream().filter(event -> event.id() > clientLastEventId).toList();
+    }
+
+    long lastId() {
+        return lastId;
+    }
+
+    record BufferedEvent(long id, ResourceChangedEvent event) {
+    }
+}
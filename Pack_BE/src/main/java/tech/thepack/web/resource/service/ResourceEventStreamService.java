@@ -0,0 +1,263 @@
+package tech.thepack.web.resource.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tech.thepack.core.resource.config.CacheInvalidationProperties;
+import tech.thepack.core.resource.config.ResourceEventsProperties;
+import tech.thepack.core.resource.invalidation.CacheInvalidationHandler;
+import tech.thepack.core.resource.invalidation.InvalidationMessage;
+import tech.thepack.web.resource.dto.ResourceDTO;
+import tech.thepack.web.resource.event.ResourceChangedEvent;
+import tech.thepack.web.resource.service.ResourceEventReplayBuffer.BufferedEvent;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed catalog changes to connected clients over Server-Sent Events.
+ * The last {@code pack.resource-events.replay-buffer-size} events are kept in memory so that a client
+ * reconnecting with {@code Last-Event-ID} gets what it missed instead of refetching the whole catalog.
+ * When the requested id has already fallen out of the buffer a {@code resync} event is sent instead.
+ * <p>
+ * Event ids are catalog versions, so they mean the same on every node and a client may reconnect to any of them.
+ * With cross-node invalidation enabled, every node (the writing one included) learns about changes through
+ * the Postgres NOTIFY of the new catalog version and loads whatever it has not streamed yet. Otherwise,
+ * on a single node, the committed event is streamed directly.
+ * <p>
+ * Publishing only queues events per subscriber, the blocking writes happen on a private executor,
+ * so a stalled client never holds up the committing request or the other subscribers' queues.
+ */
+@Service
+public class ResourceEventStreamService implements CacheInvalidationHandler, DisposableBean {
+
+    private static final String RESYNC_EVENT_NAME = "resync";
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceEventStreamService.class);
+
+    private final ResourceEventsProperties properties;
+    private final ResourceService resourceService;
+    private final boolean fedByNotifications;
+    private final ResourceEventReplayBuffer replayBuffer;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final ThreadPoolExecutor executor;
+    private boolean started;
+
+    public ResourceEventStreamService(ResourceEventsProperties properties,
+                                      CacheInvalidationProperties cacheInvalidationProperties,
+                                      ResourceService resourceService) {
+        this.properties = properties;
+        this.resourceService = resourceService;
+        this.fedByNotifications = cacheInvalidationProperties.isEnabled();
+        this.replayBuffer = new ResourceEventReplayBuffer(properties.getReplayBufferSize());
+        final int threads = properties.getDeliveryThreads();
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "resource-events-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public SseEmitter subscribe(String lastEventIdHeader) {
+        final SseEmitter emitter = new SseEmitter(properties.getEmitterTimeout().toMillis());
+        final Long clientLastEventId = parseLastEventId(lastEventIdHeader);
+        final Subscriber subscriber = new Subscriber(emitter, clientLastEventId != null ? clientLastEventId : Long.MIN_VALUE);
+        emitter.onCompletion(() -> removeSubscriber(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> removeSubscriber(subscriber));
+
+        // Replay and registration happen under the same lock as publishing, so no event can slip in between
+        synchronized (this) {
+            ensureStarted();
+            if (clientLastEventId != null) {
+                final List<BufferedEvent> missed = replayBuffer.eventsAfter(clientLastEventId);
+                if (missed == null) {
+                    subscriber.enqueue(SseEmitter.event().id(String.valueOf(replayBuffer.lastId())).name(RESYNC_EVENT_NAME).data(""));
+                } else {
+                    missed.forEach(bufferedEvent -> subscriber.enqueue(toSseEvent(bufferedEvent)));
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onResourceChanged(ResourceChangedEvent event) {
+        if (fedByNotifications || event.resource() == null) {
+            return;
+        }
+        ensureStarted();
+        publish(event.resource().getChangeVersion(), event);
+    }
+
+    // The catalog moved to a new version somewhere, runs on the single listener thread
+    @Override
+    public void invalidate(InvalidationMessage message) {
+        if (message.kind() == InvalidationMessage.Kind.CATALOG) {
+            catchUp();
+        }
+    }
+
+    // Notifications may have been missed, the versions in the database tell what they were about
+    @Override
+    public void invalidateAll() {
+        catchUp();
+    }
+
+    private void catchUp() {
+        final long streamedVersion;
+        synchronized (this) {
+            ensureStarted();
+            streamedVersion = replayBuffer.lastId();
+        }
+        // Outside the lock, subscribers and other publishers don't wait for the query.
+        // Resources are only ever created so far, an update or delete path has to record its change type as well.
+        final List<ResourceDTO> changed = resourceService.listChangedSince(streamedVersion);
+        synchronized (this) {
+            changed.forEach(resource -> publish(resource.getChangeVersion(), ResourceChangedEvent.created(resource)));
+        }
+    }
+
+    // Caller holds the lock
+    private void publish(long version, ResourceChangedEvent event) {
+        if (version <= replayBuffer.lastId()) {
+            return;
+        }
+        final BufferedEvent bufferedEvent = replayBuffer.append(version, event);
+        for (Subscriber subscriber : List.copyOf(subscribers)) {
+            // A client that reconnected ahead of this node has seen it already
+            if (bufferedEvent.id() > subscriber.seenUpTo) {
+                subscriber.enqueue(toSseEvent(bufferedEvent));
+            }
+        }
+    }
+
+    // Lazily, the first time the stream is used: the CDS training run starts the context without a database
+    private void ensureStarted() {
+        if (!started) {
+            replayBuffer.startAt(resourceService.getCatalogVersion());
+            started = true;
+        }
+    }
+
+    // Keeps idle connections from being closed by proxies (nginx defaults to a 60s read timeout)
+    @Scheduled(fixedDelayString = "${pack.resource-events.heartbeat-interval:25s}")
+    public synchronized void sendHeartbeat() {
+        List.copyOf(subscribers).forEach(subscriber -> subscriber.enqueue(SseEmitter.event().comment("heartbeat")));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private synchronized void removeSubscriber(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    private static SseEmitter.SseEventBuilder toSseEvent(BufferedEvent bufferedEvent) {
+        return SseEmitter.event()
+                .id(String.valueOf(bufferedEvent.id()))
+                .name(bufferedEvent.event().type().getEventName())
+                .data(bufferedEvent.event(), MediaType.APPLICATION_JSON);
+    }
+
+    static Long parseLastEventId(String lastEventIdHeader) {
+        if (lastEventIdHeader == null || lastEventIdHeader.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventIdHeader.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Events waiting to be written to one client, in order. At most one executor task drains a subscriber at a time.
+     * A client that falls {@code pack.resource-events.max-pending-events} behind is disconnected,
+     * it reconnects with its {@code Last-Event-ID} and catches up from the replay buffer.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final long seenUpTo;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, long seenUpTo) {
+            this.emitter = emitter;
+            this.seenUpTo = seenUpTo;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            final boolean overflow;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                overflow = pending.size() >= properties.getMaxPendingEvents();
+                if (overflow) {
+                    closed = true;
+                    pending.clear();
+                } else {
+                    pending.add(event);
+                    if (draining) {
+                        return;
+                    }
+                    draining = true;
+                }
+            }
+            if (overflow) {
+                removeSubscriber(this);
+                executor.execute(emitter::complete);
+            } else {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                final SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = pending.poll();
+                    if (event == null || closed) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // The container reports the broken connection through onError/onCompletion, nothing else to do here
+                    logger.debug("Dropping SSE subscriber: {}", e.getMessage());
+                    synchronized (this) {
+                        closed = true;
+                        pending.clear();
+                        draining = false;
+                    }
+                    removeSubscriber(this);
+                    return;
+                }
+            }
+        }
+    }
+}
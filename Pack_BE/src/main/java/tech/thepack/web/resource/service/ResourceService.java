@@ -1,27 +1,35 @@
 package tech.thepack.web.resource.service;
 
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
-import tech.thepack.core.resource.config.FileUploadProperties;
-import tech.thepack.core.resource.exception.AttachmentStorageException;
-import tech.thepack.core.resource.exception.FileSizeLimitExceededException;
+import tech.thepack.core.resource.config.AttachmentMetadataProperties;
+import tech.thepack.core.resource.enums.Role;
 import tech.thepack.core.resource.exception.InvalidInputException;
 import tech.thepack.core.resource.exception.ResourceNotFoundException;
 import tech.thepack.core.resource.model.Attachment;
 import tech.thepack.core.resource.model.Resource;
 import tech.thepack.core.resource.repository.AttachmentRepository;
+import tech.thepack.core.resource.repository.CatalogVersionRepository;
 import tech.thepack.core.resource.repository.ResourceRepository;
 import tech.thepack.web.resource.dto.AttachmentMetadataDTO;
 import tech.thepack.web.resource.dto.ResourceDTO;
 import tech.thepack.web.resource.dto.ResourceFormDataDTO;
+import tech.thepack.web.resource.event.ResourceChangedEvent;
 import tech.thepack.web.resource.mappers.AttachmentMapper;
 import tech.thepack.web.resource.mappers.ResourceMapper;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Transactional
 @Service
@@ -29,20 +37,32 @@ public class ResourceService {
 
     private final ResourceRepository resourceRepository;
     private final AttachmentRepository attachmentRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
     private final ResourceMapper resourceMapper;
     private final AttachmentMapper attachmentMapper;
-    private final FileUploadProperties fileUploadProperties;
+    private final AttachmentFileProcessor attachmentFileProcessor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final AttachmentMetadataProperties attachmentMetadataProperties;
 
     public ResourceService(ResourceRepository resourceRepository,
                            AttachmentRepository attachmentRepository,
+                           CatalogVersionRepository catalogVersionRepository,
                            ResourceMapper resourceMapper,
                            AttachmentMapper attachmentMapper,
-                           FileUploadProperties fileUploadProperties) {
+                           AttachmentFileProcessor attachmentFileProcessor,
+                           ApplicationEventPublisher eventPublisher,
+                           EntityManager entityManager,
+                           AttachmentMetadataProperties attachmentMetadataProperties) {
         this.resourceRepository = resourceRepository;
         this.attachmentRepository = attachmentRepository;
+        this.catalogVersionRepository = catalogVersionRepository;
         this.resourceMapper = resourceMapper;
         this.attachmentMapper = attachmentMapper;
-        this.fileUploadProperties = fileUploadProperties;
+        this.attachmentFileProcessor = attachmentFileProcessor;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.attachmentMetadataProperties = attachmentMetadataProperties;
     }
 
     public ResourceDTO save(ResourceFormDataDTO resourceFormDataDTO, List<MultipartFile> files) {
@@ -51,36 +71,76 @@ public class ResourceService {
         }
 
         final Resource resourceEntity = resourceMapper.toEntity(resourceFormDataDTO);
-
-        for (MultipartFile file : files) {
-            if (file.isEmpty()) {
-                continue;
-            }
-            if (file.getSize() > fileUploadProperties.getMaxFileSize().toBytes()) {
-                throw new FileSizeLimitExceededException(
-                        "File " + file.getOriginalFilename() + " size exceeds the limit of " + fileUploadProperties.getStringMaxSizeInMB()
-                );
-            }
-            try {
-                final Attachment attachment = new Attachment();
-                attachment.setFileName(StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename())));
-                attachment.setFileType(file.getContentType());
-                attachment.setFileSize(file.getSize());
-                attachment.setFileData(file.getBytes());
-                resourceEntity.addAttachment(attachment);
-            } catch (IOException e) {
-                throw new AttachmentStorageException("Could not store file " + file.getOriginalFilename() + ". Please try again!", e);
-            }
-        }
+        final List<MultipartFile> nonEmptyFiles = files.stream().filter(file -> !file.isEmpty()).toList();
+        attachmentFileProcessor.toAttachments(nonEmptyFiles).forEach(resourceEntity::addAttachment);
 
         final Resource savedEntity = resourceRepository.save(resourceEntity);
-        return resourceMapper.toDto(savedEntity);
+        // Inserts and file content are written first: from the version bump to the commit every other write on any node
+        // waits on the catalog_version row, so the bump and the change_version update are the last statements
+        entityManager.flush();
+        savedEntity.setChangeVersion(catalogVersionRepository.incrementAndGet());
+        entityManager.flush();
+        final ResourceDTO savedDto = resourceMapper.toDto(savedEntity);
+        eventPublisher.publishEvent(ResourceChangedEvent.created(savedDto));
+        return savedDto;
     }
 
     public List<ResourceDTO> listAll() {
         return resourceMapper.toDtoList(resourceRepository.findAll());
     }
 
+    // Hands every resource to the consumer as soon as it is read and detaches it right after,
+    // so neither the entities nor the DTOs of the whole catalog are ever held at once
+    public void streamAll(Long since, Set<Role> roles, Consumer<ResourceDTO> consumer) {
+        final List<Resource> chunk = new ArrayList<>(ResourceRepository.STREAM_FETCH_SIZE);
+        try (Stream<Resource> resources = openStream(since, roles)) {
+            resources.forEach(resource -> {
+                chunk.add(resource);
+                if (chunk.size() == ResourceRepository.STREAM_FETCH_SIZE) {
+                    emitChunk(chunk, consumer);
+                }
+            });
+        }
+        emitChunk(chunk, consumer);
+    }
+
+    private Stream<Resource> openStream(Long since, Set<Role> roles) {
+        if (roles != null && !roles.isEmpty()) {
+            return resourceRepository.streamByRolesMaskIn(Role.masksMatchingAny(roles), since != null ? since : -1L);
+        }
+        return since != null ? resourceRepository.streamChangedSince(since) : resourceRepository.streamAll();
+    }
+
+    // One attachment metadata query per chunk instead of one per resource, and only the chunk is ever held
+    private void emitChunk(List<Resource> chunk, Consumer<ResourceDTO> consumer) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        final Map<Long, List<AttachmentMetadataDTO>> attachmentsByResource =
+                findAttachmentsMetadata(chunk.stream().map(Resource::getId).toList());
+        for (Resource resource : chunk) {
+            final ResourceDTO resourceDto = resourceMapper.toDtoWithoutAttachments(resource);
+            final List<AttachmentMetadataDTO> attachments = attachmentsByResource.get(resource.getId());
+            resourceDto.setAttachments(attachments);
+            resourceDto.setAttachmentCount(attachments.size());
+            consumer.accept(resourceDto);
+            entityManager.detach(resource);
+        }
+        chunk.clear();
+    }
+
+    public List<ResourceDTO> listChangedSince(long version) {
+        return resourceMapper.toDtoList(resourceRepository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(version));
+    }
+
+    public List<ResourceDTO> listByRoles(Set<Role> roles, Long since) {
+        return resourceMapper.toDtoList(resourceRepository.findByRolesMaskIn(Role.masksMatchingAny(roles), since != null ? since : -1L));
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersionRepository.findCurrentVersion().orElse(0L);
+    }
+
     public Resource findById(long id) {
         return resourceRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Resource with id " + id + " not found."));
@@ -99,4 +159,25 @@ public class ResourceService {
         final Resource resource = findById(resourceId);
         return attachmentMapper.toMetadataDtoList(resource.getAttachments());
     }
+
+    // Every requested id is a key of the result, unknown resources and resources without attachments map to an empty list
+    public Map<Long, List<AttachmentMetadataDTO>> getAttachmentsMetadata(Collection<Long> resourceIds) {
+        final Set<Long> distinctIds = new LinkedHashSet<>(resourceIds);
+        if (distinctIds.isEmpty()) {
+            throw new InvalidInputException("At least one resource id must be provided.");
+        }
+        final int maxBatchSize = attachmentMetadataProperties.getMaxBatchSize();
+        if (distinctIds.size() > maxBatchSize) {
+            throw new InvalidInputException("At most " + maxBatchSize + " resource ids can be requested at once.");
+        }
+        return findAttachmentsMetadata(distinctIds);
+    }
+
+    private Map<Long, List<AttachmentMetadataDTO>> findAttachmentsMetadata(Collection<Long> resourceIds) {
+        final Map<Long, List<AttachmentMetadataDTO>> attachmentsByResource = new LinkedHashMap<>();
+        resourceIds.forEach(id -> attachmentsByResource.put(id, new ArrayList<>()));
+        attachmentRepository.findMetadataByResourceIdIn(resourceIds)
+                .forEach(view -> attachmentsByResource.get(view.getResourceId()).add(attachmentMapper.toMetadataDto(view)));
+        return attachmentsByResource;
+    }
 }
\ No newline at end of file
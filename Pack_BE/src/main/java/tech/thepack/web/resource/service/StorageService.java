@@ -0,0 +1,85 @@
+package tech.thepack.web.resource.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.thepack.core.resource.config.LargeObjectCollectorProperties;
+import tech.thepack.core.resource.repository.LargeObjectRepository;
+import tech.thepack.web.resource.dto.FileTypeStorageDTO;
+import tech.thepack.web.resource.dto.StorageStatisticsDTO;
+
+import java.util.List;
+
+@Service
+public class StorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageService.class);
+
+    private final LargeObjectRepository largeObjectRepository;
+    private final LargeObjectCollectorProperties collectorProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter deletedOrphans;
+
+    public StorageService(LargeObjectRepository largeObjectRepository,
+                          LargeObjectCollectorProperties collectorProperties,
+                          TransactionTemplate transactionTemplate,
+                          MeterRegistry meterRegistry) {
+        this.largeObjectRepository = largeObjectRepository;
+        this.collectorProperties = collectorProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.deletedOrphans = meterRegistry.counter("pack.storage.orphaned-large-objects.deleted");
+    }
+
+    // Removes large objects no attachment points to anymore, in small batches with a pause in between
+    // so that the collector never competes with regular traffic for I/O. Each batch is its own short transaction.
+    @Scheduled(initialDelayString = "${pack.lob-collector.initial-delay:5m}", fixedDelayString = "${pack.lob-collector.interval:1h}")
+    public void collectOrphanedLargeObjects() {
+        if (!collectorProperties.isEnabled()) {
+            return;
+        }
+        int total = 0;
+        for (int batch = 0; batch < collectorProperties.getMaxBatchesPerRun(); batch++) {
+            final Integer deleted = transactionTemplate.execute(status -> largeObjectRepository.tryLockCollector()
+                    ? largeObjectRepository.deleteOrphaned(collectorProperties.getBatchSize())
+                    : null);
+            if (deleted == null) {
+                logger.debug("Orphaned large object collection is running on another node");
+                break;
+            }
+            total += deleted;
+            deletedOrphans.increment(deleted);
+            if (deleted < collectorProperties.getBatchSize()) {
+                break;
+            }
+            try {
+                Thread.sleep(collectorProperties.getPauseBetweenBatches().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("Removed {} orphaned attachment large objects", total);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public StorageStatisticsDTO getStatistics() {
+        final List<FileTypeStorageDTO> byFileType = largeObjectRepository.sumLiveByFileType().stream()
+                .map(usage -> new FileTypeStorageDTO(usage.fileType(), usage.attachments(), usage.bytes()))
+                .toList();
+        final LargeObjectRepository.OrphanedUsage orphaned = largeObjectRepository.sumOrphaned();
+        return new StorageStatisticsDTO(
+                byFileType.stream().mapToLong(FileTypeStorageDTO::getAttachmentCount).sum(),
+                byFileType.stream().mapToLong(FileTypeStorageDTO::getBytes).sum(),
+                orphaned.objects(),
+                orphaned.bytes(),
+                largeObjectRepository.countDeadAttachmentTuples(),
+                byFileType);
+    }
+}
@@ -0,0 +1,24 @@
+package tech.thepack.web.resource.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Attachment bytes plus what is needed to serve them, independent of where the bytes live.
+ * Must be closed once served, whether or not the bytes were written.
+ */
+public interface AttachmentContent extends Closeable {
+
+    String fileName();
+
+    String fileType();
+
+    long size();
+
+    void writeTo(OutputStream outputStream) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
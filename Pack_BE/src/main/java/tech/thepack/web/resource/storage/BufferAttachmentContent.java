@@ -0,0 +1,25 @@
+package tech.thepack.web.resource.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+public record BufferAttachmentContent(String fileName, String fileType, ByteBuffer data) implements AttachmentContent {
+
+    @Override
+    public long size() {
+        return data.remaining();
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        // The channel is deliberately not closed, that would close the response stream
+        final WritableByteChannel channel = Channels.newChannel(outputStream);
+        final ByteBuffer view = data.duplicate();
+        while (view.hasRemaining()) {
+            channel.write(view);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package tech.thepack.web.resource.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import tech.thepack.core.resource.config.AttachmentDiskCacheProperties;
+import tech.thepack.core.resource.invalidation.CacheInvalidationHandler;
+import tech.thepack.core.resource.invalidation.InvalidationMessage;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through tier on node-local disk for attachments of any size. Every cached attachment is a {@code <id>.bin}
+ * data file plus a {@code <id>.meta} file with its name, type, size and SHA-256, so hits need no database access.
+ * The SHA-256 is the one stored with the attachment at upload ({@code attachments.checksum}), only attachments
+ * uploaded before that column existed are hashed here.
+ * Entries are evicted least recently used first once {@code pack.attachment-disk-cache.max-total-size} is exceeded.
+ * The checksum is verified the first time an entry is served by this process, the size on every hit.
+ */
+@Component
+public class DiskAttachmentCache implements MeterBinder, CacheInvalidationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskAttachmentCache.class);
+
+    private static final String DATA_SUFFIX = ".bin";
+    private static final String META_SUFFIX = ".meta";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxTotalBytes;
+    // Access ordered, the eldest entry is the least recently used one
+    private final LinkedHashMap<Long, DiskEntry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder corruptions = new LongAdder();
+
+    public DiskAttachmentCache(AttachmentDiskCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.directory = Path.of(properties.getDirectory());
+        this.maxTotalBytes = properties.getMaxTotalSize().toBytes();
+    }
+
+    @PostConstruct
+    synchronized void loadIndex() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                final String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(META_SUFFIX)) {
+                    indexExisting(file);
+                }
+            }
+        }
+        // Data files whose metadata never made it to disk
+        try (DirectoryStream<Path> dataFiles = Files.newDirectoryStream(directory, "*" + DATA_SUFFIX)) {
+            for (Path dataFile : dataFiles) {
+                final String name = dataFile.getFileName().toString();
+                final String id = name.substring(0, name.length() - DATA_SUFFIX.length());
+                if (id.isEmpty() || !id.chars().allMatch(Character::isDigit) || !index.containsKey(Long.parseLong(id))) {
+                    Files.deleteIfExists(dataFile);
+                }
+            }
+        }
+        evictOverBudget();
+        logger.info("Attachment disk cache at {} holds {} files, {} bytes", directory, index.size(), usedBytes);
+    }
+
+    public Optional<FileAttachmentContent> get(long attachmentId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        final DiskEntry entry;
+        synchronized (this) {
+            entry = index.get(attachmentId);
+        }
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        FileChannel channel = null;
+        try {
+            final Path dataPath = dataPath(attachmentId);
+            channel = FileChannel.open(dataPath, StandardOpenOption.READ);
+            if (channel.size() != entry.size || (!entry.verified && !entry.sha256.equals(checksum(channel)))) {
+                throw new IOException("size or checksum mismatch");
+            }
+            entry.verified = true;
+            hits.increment();
+            return Optional.of(new FileAttachmentContent(entry.fileName, entry.fileType, entry.size, dataPath, channel));
+        } catch (IOException e) {
+            logger.warn("Dropping corrupt cached attachment {}: {}", attachmentId, e.getMessage());
+            closeQuietly(channel);
+            corruptions.increment();
+            misses.increment();
+            evict(attachmentId);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes freshly loaded content to disk. Failures are logged and otherwise ignored, the database stays the source of truth.
+     * {@code checksum} is the SHA-256 recorded at upload, null for older attachments.
+     */
+    public void store(long attachmentId, String fileName, String fileType, byte[] data, String checksum) {
+        if (!enabled || data.length > maxTotalBytes) {
+            return;
+        }
+        Path tempData = null;
+        Path tempMeta = null;
+        try {
+            final DiskEntry entry = new DiskEntry(fileName, fileType, data.length, checksum != null ? checksum : checksum(data));
+            tempData = Files.createTempFile(directory, attachmentId + "-", DATA_SUFFIX + TEMP_SUFFIX);
+            Files.write(tempData, data);
+            tempMeta = Files.createTempFile(directory, attachmentId + "-", META_SUFFIX + TEMP_SUFFIX);
+            writeMeta(tempMeta, entry);
+            entry.verified = true;
+            synchronized (this) {
+                Files.move(tempData, dataPath(attachmentId), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tempMeta, metaPath(attachmentId), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                final DiskEntry previous = index.put(attachmentId, entry);
+                usedBytes += entry.size - (previous != null ? previous.size : 0);
+                evictOverBudget();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write attachment {} to the disk cache: {}", attachmentId, e.getMessage());
+            deleteQuietly(tempData);
+            deleteQuietly(tempMeta);
+        }
+    }
+
+    public synchronized void evict(long attachmentId) {
+        final DiskEntry removed = index.remove(attachmentId);
+        if (removed != null) {
+            usedBytes -= removed.size;
+        }
+        deleteQuietly(metaPath(attachmentId));
+        deleteQuietly(dataPath(attachmentId));
+    }
+
+    public synchronized void clear() {
+        for (Long attachmentId : index.keySet()) {
+            deleteQuietly(metaPath(attachmentId));
+            deleteQuietly(dataPath(attachmentId));
+        }
+        index.clear();
+        usedBytes = 0;
+    }
+
+    @Override
+    public void invalidate(InvalidationMessage message) {
+        if (message.kind() == InvalidationMessage.Kind.ATTACHMENT) {
+            evict(message.id());
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        clear();
+    }
+
+    private void evictOverBudget() {
+        final Iterator<Map.Entry<Long, DiskEntry>> eldestFirst = index.entrySet().iterator();
+        while (usedBytes > maxTotalBytes && eldestFirst.hasNext()) {
+            final Map.Entry<Long, DiskEntry> eldest = eldestFirst.next();
+            eldestFirst.remove();
+            usedBytes -= eldest.getValue().size;
+            // Responses still writing from the file keep their open channel, deleting it is safe
+            deleteQuietly(metaPath(eldest.getKey()));
+            deleteQuietly(dataPath(eldest.getKey()));
+            evictions.increment();
+        }
+    }
+
+    private void indexExisting(Path metaFile) {
+        final String name = metaFile.getFileName().toString();
+        try {
+            final long attachmentId = Long.parseLong(name.substring(0, name.length() - META_SUFFIX.length()));
+            final DiskEntry entry = readMeta(metaFile);
+            if (Files.size(dataPath(attachmentId)) != entry.size) {
+                throw new IOException("size mismatch");
+            }
+            index.put(attachmentId, entry);
+            usedBytes += entry.size;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Discarding unreadable disk cache entry {}: {}", name, e.getMessage());
+            deleteQuietly(metaFile);
+            if (name.length() > META_SUFFIX.length()) {
+                deleteQuietly(directory.resolve(name.substring(0, name.length() - META_SUFFIX.length()) + DATA_SUFFIX));
+            }
+        }
+    }
+
+    private static void writeMeta(Path file, DiskEntry entry) throws IOException {
+        final Properties meta = new Properties();
+        meta.setProperty("fileName", entry.fileName);
+        meta.setProperty("fileType", entry.fileType);
+        meta.setProperty("size", String.valueOf(entry.size));
+        meta.setProperty("sha256", entry.sha256);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            meta.store(writer, null);
+        }
+    }
+
+    private static DiskEntry readMeta(Path file) throws IOException {
+        final Properties meta = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            meta.load(reader);
+        }
+        return new DiskEntry(
+                meta.getProperty("fileName"),
+                meta.getProperty("fileType"),
+                Long.parseLong(meta.getProperty("size")),
+                meta.getProperty("sha256"));
+    }
+
+    private static String checksum(byte[] data) {
+        return HexFormat.of().formatHex(newDigest().digest(data));
+    }
+
+    private static String checksum(FileChannel channel) throws IOException {
+        final MessageDigest digest = newDigest();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        long position = 0;
+        int read;
+        while ((read = channel.read(buffer, position)) > 0) {
+            position += read;
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Path dataPath(long attachmentId) {
+        return directory.resolve(attachmentId + DATA_SUFFIX);
+    }
+
+    private Path metaPath(long attachmentId) {
+        return directory.resolve(attachmentId + META_SUFFIX);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // nothing left to do with it
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pack.attachment.disk-cache.requests", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("pack.attachment.disk-cache.requests", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("pack.attachment.disk-cache.evictions", evictions, LongAdder::sum).register(registry);
+        FunctionCounter.builder("pack.attachment.disk-cache.corruptions", corruptions, LongAdder::sum).register(registry);
+        Gauge.builder("pack.attachment.disk-cache.size", this, DiskAttachmentCache::usedBytes).baseUnit("bytes").register(registry);
+    }
+
+    private synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    private static final class DiskEntry {
+        private final String fileName;
+        private final String fileType;
+        private final long size;
+        private final String sha256;
+        private volatile boolean verified;
+
+        private DiskEntry(String fileName, String fileType, long size, String sha256) {
+            this.fileName = fileName;
+            this.fileType = fileType;
+            this.size = size;
+            this.sha256 = sha256;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package tech.thepack.web.resource.storage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Content served from the disk tier. The channel is opened when the file is looked up, so an eviction
+ * deleting the file in the meantime does not break a response written from it. Callers close it.
+ * {@code path} lets the servlet container send the file itself (sendfile), see ResourceController.
+ */
+public record FileAttachmentContent(String fileName, String fileType, long size, Path path, FileChannel channel)
+        implements AttachmentContent {
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        // The channel wrapping the stream is deliberately not closed, that would close the response stream
+        final WritableByteChannel target = Channels.newChannel(outputStream);
+        long position = 0;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, target);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public byte[] readAllBytes() throws IOException {
+        try (channel) {
+            final ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    throw new EOFException("Cached attachment " + fileName + " is shorter than expected");
+                }
+            }
+            return buffer.array();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package tech.thepack.web.resource.storage;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Approximate access counts (count-min sketch) for admission decisions, including keys that are not cached.
+ * Counters are halved every {@code 10 * width} increments so that old popularity fades out.
+ * Lock free: increments racing with the halving may be lost or halved early, which only blurs an estimate.
+ */
+class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    // DEPTH rows of width counters each, row after row
+    private final AtomicIntegerArray counters;
+    private final int width;
+    private final int mask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    FrequencySketch(int expectedEntries) {
+        this.width = Integer.highestOneBit(Math.max(256, Math.min(1 << 16, expectedEntries * 16)) - 1) << 1;
+        this.counters = new AtomicIntegerArray(DEPTH * width);
+        this.mask = width - 1;
+        this.sampleSize = width * 10;
+    }
+
+    void increment(long key) {
+        for (int row = 0; row < DEPTH; row++) {
+            counters.getAndUpdate(indexOf(key, row), count -> count < Integer.MAX_VALUE ? count + 1 : count);
+        }
+        // Only the thread reaching the sample size exactly ages the counters
+        if (additions.incrementAndGet() == sampleSize) {
+            age();
+        }
+    }
+
+    int frequency(long key) {
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, counters.get(indexOf(key, row)));
+        }
+        return frequency;
+    }
+
+    int sampleSize() {
+        return sampleSize;
+    }
+
+    private void age() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+        additions.addAndGet(-sampleSize / 2);
+    }
+
+    private int indexOf(long key, int row) {
+        long hash = (key + SEEDS[row]) * SEEDS[row];
+        hash ^= hash >>> 32;
+        return row * width + ((int) hash & mask);
+    }
+}
@@ -0,0 +1,169 @@
+package tech.thepack.web.resource.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import tech.thepack.core.resource.config.AttachmentCacheProperties;
+import tech.thepack.core.resource.invalidation.CacheInvalidationHandler;
+import tech.thepack.core.resource.invalidation.InvalidationMessage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Byte-budgeted cache of small attachments kept in direct buffers, outside the GC heap.
+ * Admission and eviction follow TinyLFU: a new file only replaces cached ones that were requested less often.
+ * Reads take no lock (the map and the frequency sketch are both lock free), admissions and evictions are serialized.
+ */
+@Component
+public class HotAttachmentCache implements MeterBinder, CacheInvalidationHandler {
+
+    private final Map<Long, BufferAttachmentContent> entries = new ConcurrentHashMap<>();
+    private final FrequencySketch sketch;
+    private final boolean enabled;
+    private final long maxTotalBytes;
+    private final long maxEntryBytes;
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public HotAttachmentCache(AttachmentCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.maxTotalBytes = properties.getMaxTotalSize().toBytes();
+        this.maxEntryBytes = Math.min(properties.getMaxEntrySize().toBytes(), maxTotalBytes);
+        this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE / 16, maxTotalBytes / Math.max(1, maxEntryBytes)));
+    }
+
+    public Optional<AttachmentContent> get(long attachmentId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        sketch.increment(attachmentId);
+        final BufferAttachmentContent content = entries.get(attachmentId);
+        if (content == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(content);
+    }
+
+    /**
+     * Offers freshly loaded content to the cache. Returns the cached copy when it was admitted, empty otherwise.
+     */
+    public Optional<AttachmentContent> offer(long attachmentId, String fileName, String fileType, byte[] data) {
+        if (!enabled || data.length > maxEntryBytes) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            final BufferAttachmentContent existing = entries.get(attachmentId);
+            if (existing != null) {
+                return Optional.of(existing);
+            }
+            final List<Map.Entry<Long, BufferAttachmentContent>> victims = selectVictims(attachmentId, data.length);
+            if (victims == null) {
+                rejections.increment();
+                return Optional.empty();
+            }
+            victims.forEach(victim -> remove(victim.getKey()));
+            evictions.add(victims.size());
+
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(data.length).put(data).flip().asReadOnlyBuffer();
+            final BufferAttachmentContent content = new BufferAttachmentContent(fileName, fileType, buffer);
+            entries.put(attachmentId, content);
+            usedBytes += data.length;
+            admissions.increment();
+            return Optional.of(content);
+        }
+    }
+
+    public boolean accepts(long size) {
+        return enabled && size <= maxEntryBytes;
+    }
+
+    public synchronized void evict(long attachmentId) {
+        remove(attachmentId);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    @Override
+    public void invalidate(InvalidationMessage message) {
+        if (message.kind() == InvalidationMessage.Kind.ATTACHMENT) {
+            evict(message.id());
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        clear();
+    }
+
+    // Least frequently used entries that have to go to make room, or null if the candidate is not worth it
+    private List<Map.Entry<Long, BufferAttachmentContent>> selectVictims(long candidateId, long candidateBytes) {
+        final List<Map.Entry<Long, BufferAttachmentContent>> victims = new ArrayList<>();
+        long freeBytes = maxTotalBytes - usedBytes;
+        if (freeBytes >= candidateBytes) {
+            return victims;
+        }
+        final int candidateFrequency = sketch.frequency(candidateId);
+        final List<Map.Entry<Long, BufferAttachmentContent>> byFrequency = new ArrayList<>(entries.entrySet());
+        byFrequency.sort(Comparator.comparingInt(entry -> sketch.frequency(entry.getKey())));
+        for (Map.Entry<Long, BufferAttachmentContent> entry : byFrequency) {
+            if (sketch.frequency(entry.getKey()) >= candidateFrequency) {
+                return null;
+            }
+            victims.add(entry);
+            freeBytes += entry.getValue().size();
+            if (freeBytes >= candidateBytes) {
+                return victims;
+            }
+        }
+        return null;
+    }
+
+    private void remove(long attachmentId) {
+        // The direct buffer is released by the GC once no response is still writing from it
+        final BufferAttachmentContent removed = entries.remove(attachmentId);
+        if (removed != null) {
+            usedBytes -= removed.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pack.attachment.cache.requests", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("pack.attachment.cache.requests", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("pack.attachment.cache.admissions", admissions, LongAdder::sum).register(registry);
+        FunctionCounter.builder("pack.attachment.cache.rejections", rejections, LongAdder::sum).register(registry);
+        FunctionCounter.builder("pack.attachment.cache.evictions", evictions, LongAdder::sum).register(registry);
+        Gauge.builder("pack.attachment.cache.hit.ratio", this, HotAttachmentCache::hitRatio).register(registry);
+        Gauge.builder("pack.attachment.cache.entries", entries, Map::size).register(registry);
+        Gauge.builder("pack.attachment.cache.size", this, HotAttachmentCache::usedBytes).baseUnit("bytes").register(registry);
+    }
+
+    public double hitRatio() {
+        final long hitCount = hits.sum();
+        final long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+}
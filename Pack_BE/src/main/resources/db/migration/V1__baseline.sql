@@ -0,0 +1,36 @@
+-- Schema as it was generated by hibernate.ddl-auto=update before the schema moved to Flyway.
+-- Databases created that way are baselined at this version (spring.flyway.baseline-on-migrate) and skip this script.
+
+CREATE SEQUENCE IF NOT EXISTS resources_id_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS attachments_id_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE resources
+(
+    id          BIGINT        NOT NULL,
+    title       VARCHAR(200)  NOT NULL,
+    description VARCHAR(1000),
+    category    VARCHAR(255),
+    language    VARCHAR(255),
+    provider    VARCHAR(255),
+    CONSTRAINT resources_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE resource_roles
+(
+    resource_id BIGINT NOT NULL,
+    role        VARCHAR(255),
+    CONSTRAINT fk_resource_roles_resource FOREIGN KEY (resource_id) REFERENCES resources (id)
+);
+
+CREATE TABLE attachments
+(
+    id          BIGINT       NOT NULL,
+    file_name   VARCHAR(255) NOT NULL,
+    file_type   VARCHAR(100) NOT NULL,
+    file_size   BIGINT       NOT NULL,
+    file_data   OID          NOT NULL,
+    uploaded_at TIMESTAMP(6) NOT NULL,
+    resource_id BIGINT       NOT NULL,
+    CONSTRAINT attachments_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_attachments_resource FOREIGN KEY (resource_id) REFERENCES resources (id)
+);
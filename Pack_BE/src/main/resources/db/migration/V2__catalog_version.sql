@@ -0,0 +1,12 @@
+-- Catalog versioning for conditional and delta listings.
+-- IF NOT EXISTS: databases that ran with ddl-auto=update after it was introduced already have these objects.
+ALTER TABLE resources ADD COLUMN IF NOT EXISTS change_version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_resources_change_version ON resources (change_version);
+
+CREATE TABLE IF NOT EXISTS catalog_version
+(
+    id      BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    CONSTRAINT catalog_version_pkey PRIMARY KEY (id)
+);
@@ -0,0 +1,2 @@
+-- Filled for new uploads only, older attachments keep NULL
+ALTER TABLE attachments ADD COLUMN checksum VARCHAR(64);
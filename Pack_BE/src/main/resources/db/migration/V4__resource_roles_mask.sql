@@ -0,0 +1,15 @@
+-- Roles move from the resource_roles collection table to a bitmask on resources, one bit per Role:
+-- MENTOR_COACH = 1, MENTEE_COACHEE = 2 (see Role#getBit)
+ALTER TABLE resources ADD COLUMN roles_mask INTEGER NOT NULL DEFAULT 0;
+
+UPDATE resources r
+SET roles_mask = m.mask
+FROM (SELECT resource_id,
+             bit_or(CASE role WHEN 'MENTOR_COACH' THEN 1 WHEN 'MENTEE_COACHEE' THEN 2 ELSE 0 END) AS mask
+      FROM resource_roles
+      GROUP BY resource_id) m
+WHERE r.id = m.resource_id;
+
+CREATE INDEX idx_resources_roles_mask ON resources (roles_mask);
+
+DROP TABLE resource_roles;
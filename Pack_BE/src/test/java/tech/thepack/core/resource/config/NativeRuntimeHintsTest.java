@@ -0,0 +1,38 @@
+package tech.thepack.core.resource.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeRuntimeHintsTest() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registersTheJdbcProxiesOfTheCountingDataSource() {
+        for (Class<?> jdbcType : List.of(Connection.class, Statement.class, PreparedStatement.class,
+                CallableStatement.class, ResultSet.class)) {
+            assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(jdbcType).test(hints), jdbcType.getName());
+        }
+    }
+
+    @Test
+    void letsTheProxiesForwardCallsToTheDriver() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(PreparedStatement.class.getMethod("executeQuery")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ResultSet.class.getMethod("next")).test(hints));
+    }
+}
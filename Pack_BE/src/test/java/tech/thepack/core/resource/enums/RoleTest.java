@@ -0,0 +1,60 @@
+package tech.thepack.core.resource.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoleTest {
+
+    @Test
+    void toMaskCombinesTheBits() {
+        assertEquals(0, Role.toMask(null));
+        assertEquals(0, Role.toMask(Set.of()));
+        assertEquals(1, Role.toMask(Set.of(Role.MENTOR_COACH)));
+        assertEquals(2, Role.toMask(Set.of(Role.MENTEE_COACHEE)));
+        assertEquals(3, Role.toMask(Set.of(Role.MENTOR_COACH, Role.MENTEE_COACHEE)));
+    }
+
+    @Test
+    void fromMaskIsTheInverseOfToMask() {
+        for (int mask = 0; mask <= Role.toMask(EnumSet.allOf(Role.class)); mask++) {
+            assertEquals(mask, Role.toMask(Role.fromMask(mask)));
+        }
+        assertEquals(Set.of(Role.MENTEE_COACHEE), Role.fromMask(2));
+        assertEquals(EnumSet.allOf(Role.class), Role.fromMask(3));
+    }
+
+    @Test
+    void fromMaskIgnoresUnknownBits() {
+        assertEquals(Set.of(), Role.fromMask(1 << 8));
+        assertEquals(Set.of(Role.MENTOR_COACH), Role.fromMask(1 | 1 << 8));
+    }
+
+    @Test
+    void bitsAreDistinctSingleBits() {
+        int seen = 0;
+        for (Role role : Role.values()) {
+            assertEquals(1, Integer.bitCount(role.getBit()), role.name());
+            assertEquals(0, seen & role.getBit(), role.name());
+            seen |= role.getBit();
+        }
+    }
+
+    @Test
+    void masksMatchingAnyListsEveryMaskSharingARole() {
+        assertEquals(List.of(1, 3), Role.masksMatchingAny(Set.of(Role.MENTOR_COACH)));
+        assertEquals(List.of(2, 3), Role.masksMatchingAny(Set.of(Role.MENTEE_COACHEE)));
+        assertEquals(List.of(1, 2, 3), Role.masksMatchingAny(EnumSet.allOf(Role.class)));
+    }
+
+    @Test
+    void masksMatchingAnyOfNothingIsEmpty() {
+        assertTrue(Role.masksMatchingAny(Set.of()).isEmpty());
+        assertTrue(Role.masksMatchingAny(null).isEmpty());
+    }
+}
@@ -0,0 +1,21 @@
+package tech.thepack.support;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Runs the application against a throwaway Postgres, migrated by Flyway like production.
+ * Needed wherever behaviour depends on Postgres itself: large objects, statement counts, LISTEN/NOTIFY.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgresTestcontainersConfiguration {
+
+    @Bean
+    @ServiceConnection
+    PostgreSQLContainer<?> postgresContainer() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("postgres:17.4-alpine"));
+    }
+}
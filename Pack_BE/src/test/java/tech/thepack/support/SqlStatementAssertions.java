@@ -0,0 +1,33 @@
+package tech.thepack.support;
+
+import tech.thepack.core.resource.monitoring.SqlStatementCounter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test-side API over {@link SqlStatementCounter}. Only statements run on the calling thread are counted,
+ * which covers MockMvc requests but not streamed or async response bodies.
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static SqlStatementCounter.Scope measure(ThrowingRunnable action) throws Exception {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            action.run();
+            return scope;
+        }
+    }
+
+    public static void assertStatementCount(long expected, ThrowingRunnable action) throws Exception {
+        final SqlStatementCounter.Scope scope = measure(action);
+        assertEquals(expected, scope.getStatements(),
+                () -> "Unexpected number of SQL statements (" + scope.getRows() + " rows fetched)");
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,259 @@
+package tech.thepack.web.resource.controller;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.thepack.core.resource.enums.Category;
+import tech.thepack.core.resource.enums.Role;
+import tech.thepack.core.resource.model.Attachment;
+import tech.thepack.core.resource.model.Resource;
+import tech.thepack.core.resource.monitoring.SqlStatementCounter;
+import tech.thepack.core.resource.repository.AttachmentRepository;
+import tech.thepack.core.resource.repository.ResourceRepository;
+import tech.thepack.support.PostgresTestcontainersConfiguration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static tech.thepack.support.SqlStatementAssertions.assertStatementCount;
+
+/**
+ * Statement counts per endpoint must not depend on the catalog size, anything else is an N+1 query.
+ * Every test runs in a rolled back transaction, seeded data is flushed and evicted so the request has to load it.
+ * Endpoints doing their work outside the request's transaction (attachment content, streamed lists) cannot see
+ * that data, their tests commit it and delete it afterwards. SQL of async bodies is counted through
+ * {@link SqlStatementCounter#propagate(Runnable)}, the task decorator of the application's MVC task executor.
+ */
+@SpringBootTest(properties = {
+        "pack.attachment-cache.enabled=false",
+        "pack.attachment-disk-cache.enabled=false",
+        "pack.lob-collector.enabled=false",
+        "pack.cache-invalidation.enabled=false"
+})
+@Import(PostgresTestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureMockMvc
+@Transactional
+class ResourceControllerStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ResourceRepository resourceRepository;
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void listAll(int catalogSize) throws Exception {
+        seedCatalog(catalogSize);
+        // catalog version, resources, attachments of all resources
+        assertStatementCount(3, () -> mockMvc.perform(get("/api/v1/resources")).andExpect(status().isOk()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void listAllNotModified(int catalogSize) throws Exception {
+        seedCatalog(catalogSize);
+        final String eTag = mockMvc.perform(get("/api/v1/resources")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // catalog version only
+        assertStatementCount(1, () -> mockMvc.perform(get("/api/v1/resources").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void listChangedSince(int catalogSize) throws Exception {
+        seedCatalog(catalogSize);
+        assertStatementCount(3, () -> mockMvc.perform(get("/api/v1/resources").param("since", "-1"))
+                .andExpect(status().isOk()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void listByRole(int catalogSize) throws Exception {
+        seedCatalog(catalogSize);
+        assertStatementCount(3, () -> mockMvc.perform(get("/api/v1/resources").param("role", Role.MENTEE_COACHEE.name()))
+                .andExpect(status().isOk()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50, 250})
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void streamAll(int catalogSize) throws Exception {
+        final List<Long> ids = seedCommittedCatalog(catalogSize);
+        try {
+            final int chunks = (catalogSize + ResourceRepository.STREAM_FETCH_SIZE - 1) / ResourceRepository.STREAM_FETCH_SIZE;
+            // catalog version, the cursor, then one attachment metadata query per chunk of STREAM_FETCH_SIZE resources
+            assertStatementCount(2 + chunks, () -> {
+                final MvcResult result = mockMvc.perform(get("/api/v1/resources").param("stream", "true"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+                result.getAsyncResult();
+                mockMvc.perform(asyncDispatch(result))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(catalogSize));
+            });
+        } finally {
+            resourceRepository.deleteAllById(ids);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void downloadAttachment(int catalogSize) throws Exception {
+        final List<Long> ids = seedCommittedCatalog(catalogSize);
+        try {
+            final long attachmentId = firstAttachmentId(ids.get(0));
+            // the attachment row, its large object is read through the driver's fastpath API and not counted
+            assertStatementCount(1, () -> mockMvc.perform(get("/api/v1/resources/attachments/{id}/download", attachmentId))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("content 0")));
+        } finally {
+            resourceRepository.deleteAllById(ids);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void viewAttachment(int catalogSize) throws Exception {
+        final List<Long> ids = seedCommittedCatalog(catalogSize);
+        try {
+            final long attachmentId = firstAttachmentId(ids.get(0));
+            assertStatementCount(1, () -> mockMvc.perform(get("/api/v1/resources/attachments/{id}/view", attachmentId))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("content 0")));
+        } finally {
+            resourceRepository.deleteAllById(ids);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void getResourceById(int catalogSize) throws Exception {
+        final long id = seedCatalog(catalogSize).get(0);
+        // resource, attachments
+        assertStatementCount(2, () -> mockMvc.perform(get("/api/v1/resources/{id}", id)).andExpect(status().isOk()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void listAttachmentsForResource(int catalogSize) throws Exception {
+        final long id = seedCatalog(catalogSize).get(0);
+        assertStatementCount(2, () -> mockMvc.perform(get("/api/v1/resources/{id}/attachments", id))
+                .andExpect(status().isOk()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void listAttachmentsForResources(int catalogSize) throws Exception {
+        final List<Long> ids = seedCatalog(catalogSize);
+        final String resourceIds = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        // attachment metadata of all requested resources
+        assertStatementCount(1, () -> mockMvc.perform(get("/api/v1/resources/attachments").param("resourceIds", resourceIds))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void listAttachmentsForResourcesAboveBatchLimit() throws Exception {
+        final String resourceIds = LongStream.rangeClosed(1, 101).mapToObj(String::valueOf).collect(Collectors.joining(","));
+        // rejected before any query runs
+        assertStatementCount(0, () -> mockMvc.perform(get("/api/v1/resources/attachments").param("resourceIds", resourceIds))
+                .andExpect(status().isBadRequest()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "/api/v1/resources, role, FOO",
+            "/api/v1/resources, since, abc",
+            "/api/v1/resources/attachments, resourceIds, abc"
+    })
+    void unconvertibleParameter(String path, String parameter, String value) throws Exception {
+        // rejected before any query runs, as a 400 rather than an internal error
+        assertStatementCount(0, () -> mockMvc.perform(get(path).param(parameter, value))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid value '" + value + "' for parameter '" + parameter + "'.")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void save(int catalogSize) throws Exception {
+        seedCatalog(catalogSize);
+        final MockMultipartFile data = new MockMultipartFile("data", "", MediaType.APPLICATION_JSON_VALUE,
+                "{\"title\":\"New resource\",\"roles\":[\"MENTOR_COACH\"]}".getBytes(StandardCharsets.UTF_8));
+        final MockMultipartFile file = new MockMultipartFile("files", "notes.txt", MediaType.TEXT_PLAIN_VALUE,
+                "notes".getBytes(StandardCharsets.UTF_8));
+        // 2 id sequences, resource and attachment inserts, then the catalog version bump and the change_version update
+        assertStatementCount(6, () -> {
+            mockMvc.perform(multipart("/api/v1/resources").file(data).file(file)).andExpect(status().isCreated());
+            // The test transaction never commits, flush to get the inserts
+            entityManager.flush();
+        });
+    }
+
+    private List<Long> seedCatalog(int size) {
+        final List<Long> ids = resourceRepository.saveAll(newCatalog(size)).stream().map(Resource::getId).toList();
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
+    // Outside a test transaction: every repository call commits on its own
+    private List<Long> seedCommittedCatalog(int size) {
+        return resourceRepository.saveAll(newCatalog(size)).stream().map(Resource::getId).toList();
+    }
+
+    private long firstAttachmentId(long resourceId) {
+        return attachmentRepository.findMetadataByResourceIdIn(List.of(resourceId)).get(0).getId();
+    }
+
+    private static List<Resource> newCatalog(int size) {
+        final List<Resource> resources = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final Resource resource = new Resource();
+            resource.setTitle("Resource " + i);
+            resource.setCategory(Category.LEADERSHIP);
+            resource.setRoles(Set.of(Role.MENTEE_COACHEE));
+            final Attachment attachment = new Attachment();
+            attachment.setFileName("file-" + i + ".txt");
+            attachment.setFileType(MediaType.TEXT_PLAIN_VALUE);
+            attachment.setFileData(("content " + i).getBytes(StandardCharsets.UTF_8));
+            attachment.setFileSize((long) attachment.getFileData().length);
+            resource.addAttachment(attachment);
+            resources.add(resource);
+        }
+        return resources;
+    }
+}
@@ -0,0 +1,171 @@
+package tech.thepack.web.resource.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import tech.thepack.core.resource.config.FileUploadProperties;
+import tech.thepack.core.resource.exception.AttachmentStorageException;
+import tech.thepack.core.resource.exception.FileSizeLimitExceededException;
+import tech.thepack.core.resource.model.Attachment;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AttachmentFileProcessorTest {
+
+    private static final String HELLO_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    private final AttachmentFileProcessor processor = new AttachmentFileProcessor(properties(DataSize.ofBytes(100), 4));
+
+    @AfterEach
+    void shutDown() {
+        processor.destroy();
+    }
+
+    @Test
+    void keepsTheOrderOfTheUploadedFiles() {
+        final List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            files.add(file("file-" + i + ".txt", "content " + i));
+        }
+
+        final List<Attachment> attachments = processor.toAttachments(files);
+
+        assertEquals(20, attachments.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("file-" + i + ".txt", attachments.get(i).getFileName());
+            assertEquals("content " + i, new String(attachments.get(i).getFileData(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void recordsSizeAndChecksum() {
+        final Attachment attachment = processor.toAttachments(List.of(file("hello.txt", "hello"))).get(0);
+
+        assertEquals(5L, attachment.getFileSize());
+        assertEquals(HELLO_SHA256, attachment.getChecksum());
+        assertEquals("text/plain", attachment.getFileType());
+    }
+
+    @Test
+    void rejectsAnOversizedFileBeforeReadingAnything() {
+        final AtomicBoolean read = new AtomicBoolean();
+        final MultipartFile small = new MockMultipartFile("files", "small.txt", "text/plain", new byte[10]) {
+            @Override
+            public byte[] getBytes() throws IOException {
+                read.set(true);
+                return super.getBytes();
+            }
+        };
+        final MultipartFile big = new MockMultipartFile("files", "big.bin", "application/octet-stream", new byte[101]);
+
+        assertThrows(FileSizeLimitExceededException.class, () -> processor.toAttachments(List.of(small, big)));
+        assertFalse(read.get());
+    }
+
+    @Test
+    void failsFastWithoutWaitingForTheOtherFiles() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final MultipartFile slow = new MockMultipartFile("files", "slow.txt", "text/plain", new byte[10]) {
+            @Override
+            public byte[] getBytes() throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getBytes();
+            }
+        };
+        final MultipartFile broken = new MockMultipartFile("files", "broken.txt", "text/plain", new byte[10]) {
+            @Override
+            public byte[] getBytes() throws IOException {
+                throw new IOException("disk gone");
+            }
+        };
+
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                final AttachmentStorageException e = assertThrows(AttachmentStorageException.class,
+                        () -> processor.toAttachments(List.of(slow, broken)));
+                assertEquals("Could not store file broken.txt. Please try again!", e.getMessage());
+            });
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void stopsTheOtherFilesAfterAFailure() throws InterruptedException {
+        final AttachmentFileProcessor twoThreads = new AttachmentFileProcessor(properties(DataSize.ofBytes(100), 2));
+        final CountDownLatch slowStarted = new CountDownLatch(1);
+        final CountDownLatch slowInterrupted = new CountDownLatch(1);
+        final AtomicBoolean queuedRead = new AtomicBoolean();
+        final MultipartFile slow = new MockMultipartFile("files", "slow.txt", "text/plain", new byte[10]) {
+            @Override
+            public byte[] getBytes() throws IOException {
+                slowStarted.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    slowInterrupted.countDown();
+                    throw new InterruptedIOException();
+                }
+                return super.getBytes();
+            }
+        };
+        final MultipartFile broken = new MockMultipartFile("files", "broken.txt", "text/plain", new byte[10]) {
+            @Override
+            public byte[] getBytes() throws IOException {
+                try {
+                    slowStarted.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("disk gone");
+            }
+        };
+        // Waits in the pool's queue until a thread is free, by then the upload has failed
+        final MultipartFile queued = new MockMultipartFile("files", "queued.txt", "text/plain", new byte[10]) {
+            @Override
+            public byte[] getBytes() throws IOException {
+                queuedRead.set(true);
+                return super.getBytes();
+            }
+        };
+
+        try {
+            assertThrows(AttachmentStorageException.class, () -> twoThreads.toAttachments(List.of(slow, broken, queued)));
+            assertTrue(slowInterrupted.await(5, TimeUnit.SECONDS));
+            assertFalse(queuedRead.get());
+        } finally {
+            twoThreads.destroy();
+        }
+    }
+
+    private static MultipartFile file(String name, String content) {
+        return new MockMultipartFile("files", name, "text/plain", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static FileUploadProperties properties(DataSize maxFileSize, int processingThreads) {
+        final FileUploadProperties properties = new FileUploadProperties();
+        properties.setMaxFileSize(maxFileSize);
+        properties.setProcessingThreads(processingThreads);
+        return properties;
+    }
+}
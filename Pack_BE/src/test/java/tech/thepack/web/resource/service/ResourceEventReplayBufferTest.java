@@ -0,0 +1,114 @@
+package tech.thepack.web.resource.service;
+
+import org.junit.jupiter.api.Test;
+import tech.thepack.core.resource.enums.ResourceChangeType;
+import tech.thepack.web.resource.event.ResourceChangedEvent;
+import tech.thepack.web.resource.service.ResourceEventReplayBuffer.BufferedEvent;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResourceEventReplayBufferTest {
+
+    @Test
+    void replaysEverythingAfterTheClientId() {
+        final ResourceEventReplayBuffer buffer = bufferWithVersions(4, 0, 1, 2, 3);
+
+        assertEquals(List.of(2L, 3L), ids(buffer.eventsAfter(1)));
+        assertEquals(List.of(1L, 2L, 3L), ids(buffer.eventsAfter(0)));
+    }
+
+    @Test
+    void upToDateClientGetsNothing() {
+        final ResourceEventReplayBuffer buffer = bufferWithVersions(4, 0, 1, 2, 3);
+
+        assertEquals(List.of(), ids(buffer.eventsAfter(3)));
+    }
+
+    @Test
+    void clientRightBeforeTheOldestBufferedEventIsReplayed() {
+        // Capacity 4: versions 3..6 are buffered, 2 was the last one dropped
+        final ResourceEventReplayBuffer buffer = bufferWithVersions(4, 0, 1, 2, 3, 4, 5, 6);
+
+        assertEquals(List.of(3L, 4L, 5L, 6L), ids(buffer.eventsAfter(2)));
+    }
+
+    @Test
+    void clientThatMissedADroppedEventHasToResync() {
+        final ResourceEventReplayBuffer buffer = bufferWithVersions(4, 0, 1, 2, 3, 4, 5, 6);
+
+        assertNull(buffer.eventsAfter(1));
+        assertNull(buffer.eventsAfter(0));
+    }
+
+    @Test
+    void gapsFromRolledBackWritesDoNotForceAResync() {
+        // Versions 4 and 6 were taken by transactions that rolled back
+        final ResourceEventReplayBuffer buffer = bufferWithVersions(2, 0, 3, 5, 7);
+
+        assertEquals(List.of(5L, 7L), ids(buffer.eventsAfter(3)));
+        assertEquals(List.of(5L, 7L), ids(buffer.eventsAfter(4)));
+        assertNull(buffer.eventsAfter(2));
+    }
+
+    @Test
+    void versionsFromBeforeThisNodeStartedHaveToResync() {
+        // Started at catalog version 10 after a restart
+        final ResourceEventReplayBuffer buffer = bufferWithVersions(4, 10, 11);
+
+        assertNull(buffer.eventsAfter(9));
+        assertEquals(List.of(11L), ids(buffer.eventsAfter(10)));
+    }
+
+    @Test
+    void clientAheadOfThisNodeGetsNothingInsteadOfAResync() {
+        // Seen version 12 on another node, this one only got as far as 11
+        final ResourceEventReplayBuffer buffer = bufferWithVersions(4, 10, 11);
+
+        assertEquals(List.of(), ids(buffer.eventsAfter(12)));
+    }
+
+    @Test
+    void unparseableIdHasToResync() {
+        final long clientLastEventId = ResourceEventStreamService.parseLastEventId("not-a-number");
+
+        assertEquals(-1L, clientLastEventId);
+        assertNull(bufferWithVersions(4, 0, 1, 2).eventsAfter(clientLastEventId));
+        assertNull(bufferWithVersions(4, 0).eventsAfter(clientLastEventId));
+    }
+
+    @Test
+    void missingHeaderMeansNoReplay() {
+        assertNull(ResourceEventStreamService.parseLastEventId(null));
+        assertNull(ResourceEventStreamService.parseLastEventId(" "));
+        assertEquals(7L, ResourceEventStreamService.parseLastEventId(" 7 "));
+    }
+
+    @Test
+    void rejectsVersionsOutOfOrder() {
+        final ResourceEventReplayBuffer buffer = bufferWithVersions(4, 0, 5);
+
+        assertThrows(IllegalArgumentException.class, () -> buffer.append(5, event(5)));
+        assertThrows(IllegalArgumentException.class, () -> buffer.append(4, event(4)));
+    }
+
+    private static ResourceEventReplayBuffer bufferWithVersions(int capacity, long startVersion, long... versions) {
+        final ResourceEventReplayBuffer buffer = new ResourceEventReplayBuffer(capacity);
+        buffer.startAt(startVersion);
+        for (long version : versions) {
+            buffer.append(version, event(version));
+        }
+        return buffer;
+    }
+
+    private static ResourceChangedEvent event(long resourceId) {
+        return new ResourceChangedEvent(ResourceChangeType.CREATED, resourceId, null);
+    }
+
+    private static List<Long> ids(List<BufferedEvent> events) {
+        return events.stream().map(BufferedEvent::id).toList();
+    }
+}
@@ -0,0 +1,162 @@
+package tech.thepack.web.resource.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.thepack.core.resource.enums.Category;
+import tech.thepack.core.resource.enums.Role;
+import tech.thepack.core.resource.model.Attachment;
+import tech.thepack.core.resource.model.Resource;
+import tech.thepack.core.resource.repository.ResourceRepository;
+import tech.thepack.support.PostgresTestcontainersConfiguration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The orphaned large object collector and the storage report, against Postgres: large objects only exist there.
+ * Not transactional, the collector commits every batch on its own. Its schedule is pushed out of the way,
+ * the tests call it directly.
+ */
+@SpringBootTest(properties = {
+        "pack.attachment-cache.enabled=false",
+        "pack.attachment-disk-cache.enabled=false",
+        "pack.cache-invalidation.enabled=false",
+        "pack.lob-collector.initial-delay=1h",
+        "pack.lob-collector.batch-size=2",
+        "pack.lob-collector.max-batches-per-run=2",
+        "pack.lob-collector.pause-between-batches=0ms"
+})
+@Import(PostgresTestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureMockMvc
+class StorageServiceTest {
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private ResourceRepository resourceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void emptyStorage() {
+        resourceRepository.deleteAll();
+        jdbcTemplate.queryForObject("SELECT count(lo_unlink(oid)) FROM pg_largeobject_metadata", Long.class);
+    }
+
+    @Test
+    void removesTheLargeObjectOfADeletedAttachment() {
+        final Resource deleted = resourceRepository.save(resource("text/plain", "deleted"));
+        final Resource kept = resourceRepository.save(resource("text/plain", "kept"));
+        final long deletedOid = largeObjectOf(deleted);
+        final long keptOid = largeObjectOf(kept);
+        resourceRepository.deleteById(deleted.getId());
+        assertTrue(largeObjectExists(deletedOid));
+
+        storageService.collectOrphanedLargeObjects();
+
+        assertFalse(largeObjectExists(deletedOid));
+        assertTrue(largeObjectExists(keptOid));
+        assertEquals("kept", jdbcTemplate.queryForObject(
+                "SELECT convert_from(lo_get(?), 'UTF8')", String.class, keptOid));
+    }
+
+    @Test
+    void leavesLiveLargeObjectsAlone() {
+        resourceRepository.save(resource("text/plain", "one"));
+        resourceRepository.save(resource("application/pdf", "two"));
+
+        storageService.collectOrphanedLargeObjects();
+
+        assertEquals(2L, countLargeObjects());
+    }
+
+    @Test
+    void deletesAtMostBatchSizeTimesMaxBatchesPerRun() {
+        resourceRepository.save(resource("text/plain", "live"));
+        for (int i = 0; i < 5; i++) {
+            createOrphan("orphan " + i);
+        }
+
+        // 2 batches of 2, the live object and one orphan are left
+        storageService.collectOrphanedLargeObjects();
+        assertEquals(2L, countLargeObjects());
+
+        // A short batch ends the run
+        storageService.collectOrphanedLargeObjects();
+        assertEquals(1L, countLargeObjects());
+    }
+
+    @Test
+    void reportsLiveOrphanedAndPerFileTypeUsage() throws Exception {
+        resourceRepository.save(resource("text/plain", "0123456789"));
+        resourceRepository.save(resource("text/plain", "01234"));
+        resourceRepository.save(resource("application/pdf", "0123456789012345678901234"));
+        createOrphan("1234567");
+
+        mockMvc.perform(get("/admin/storage"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.liveAttachmentCount").value(3))
+                .andExpect(jsonPath("$.liveBytes").value(40))
+                .andExpect(jsonPath("$.orphanedObjectCount").value(1))
+                .andExpect(jsonPath("$.orphanedBytes").value(7))
+                // Largest first
+                .andExpect(jsonPath("$.byFileType.length()").value(2))
+                .andExpect(jsonPath("$.byFileType[0].fileType").value("application/pdf"))
+                .andExpect(jsonPath("$.byFileType[0].attachmentCount").value(1))
+                .andExpect(jsonPath("$.byFileType[0].bytes").value(25))
+                .andExpect(jsonPath("$.byFileType[1].fileType").value("text/plain"))
+                .andExpect(jsonPath("$.byFileType[1].attachmentCount").value(2))
+                .andExpect(jsonPath("$.byFileType[1].bytes").value(15));
+    }
+
+    private long largeObjectOf(Resource resource) {
+        return jdbcTemplate.queryForObject("SELECT file_data FROM attachments WHERE resource_id = ?", Long.class, resource.getId());
+    }
+
+    private boolean largeObjectExists(long oid) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM pg_largeobject_metadata WHERE oid = ?", Long.class, oid) > 0;
+    }
+
+    private long countLargeObjects() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM pg_largeobject_metadata", Long.class);
+    }
+
+    // A large object no attachment points to, like the ones deleted attachment rows leave behind
+    private void createOrphan(String content) {
+        jdbcTemplate.queryForObject("SELECT lo_from_bytea(0, ?)", Long.class, (Object) content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Resource resource(String fileType, String content) {
+        final Resource resource = new Resource();
+        resource.setTitle("Resource");
+        resource.setCategory(Category.LEADERSHIP);
+        resource.setRoles(Set.of(Role.MENTOR_COACH));
+        final Attachment attachment = new Attachment();
+        attachment.setFileName("file");
+        attachment.setFileType(fileType);
+        attachment.setFileData(content.getBytes(StandardCharsets.UTF_8));
+        attachment.setFileSize((long) attachment.getFileData().length);
+        resource.addAttachment(attachment);
+        return resource;
+    }
+}
@@ -0,0 +1,196 @@
+package tech.thepack.web.resource.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import tech.thepack.core.resource.config.AttachmentDiskCacheProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskAttachmentCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void servesStoredContent() throws IOException {
+        final DiskAttachmentCache cache = newCache(1000);
+        cache.store(1, "a.txt", "text/plain", bytes("hello"), null);
+
+        try (FileAttachmentContent content = cache.get(1).orElseThrow()) {
+            assertEquals("a.txt", content.fileName());
+            assertEquals("text/plain", content.fileType());
+            assertArrayEquals(bytes("hello"), read(content));
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesOverTheBudget() throws IOException {
+        final DiskAttachmentCache cache = newCache(100);
+        cache.store(1, "1.bin", "application/octet-stream", new byte[40], null);
+        cache.store(2, "2.bin", "application/octet-stream", new byte[40], null);
+        cache.get(1).orElseThrow().close();
+
+        cache.store(3, "3.bin", "application/octet-stream", new byte[40], null);
+
+        assertFalse(cache.get(2).isPresent());
+        assertFalse(Files.exists(directory.resolve("2.bin")));
+        assertFalse(Files.exists(directory.resolve("2.meta")));
+        assertPresent(cache.get(1));
+        assertPresent(cache.get(3));
+    }
+
+    @Test
+    void skipsFilesLargerThanTheWholeBudget() {
+        final DiskAttachmentCache cache = newCache(100);
+
+        cache.store(1, "big.bin", "application/octet-stream", new byte[101], null);
+
+        assertFalse(cache.get(1).isPresent());
+    }
+
+    @Test
+    void rebuildsTheIndexFromDisk() throws IOException {
+        final DiskAttachmentCache cache = newCache(1000);
+        cache.store(1, "a.txt", "text/plain", bytes("first"), null);
+        cache.store(2, "b.txt", "text/plain", bytes("second"), null);
+        Files.write(directory.resolve("3-123.bin.tmp"), bytes("half written"));
+        Files.write(directory.resolve("4.bin"), bytes("metadata never written"));
+
+        final DiskAttachmentCache restarted = newCache(1000);
+
+        try (FileAttachmentContent content = restarted.get(2).orElseThrow()) {
+            assertEquals("b.txt", content.fileName());
+            assertArrayEquals(bytes("second"), read(content));
+        }
+        assertPresent(restarted.get(1));
+        assertFalse(Files.exists(directory.resolve("3-123.bin.tmp")));
+        assertFalse(Files.exists(directory.resolve("4.bin")));
+    }
+
+    @Test
+    void rebuiltIndexRespectsTheBudget() {
+        final DiskAttachmentCache cache = newCache(1000);
+        cache.store(1, "1.bin", "application/octet-stream", new byte[40], null);
+        cache.store(2, "2.bin", "application/octet-stream", new byte[40], null);
+        cache.store(3, "3.bin", "application/octet-stream", new byte[40], null);
+
+        final DiskAttachmentCache restarted = newCache(100);
+
+        assertEquals(2, countPresent(restarted, 1, 2, 3));
+    }
+
+    @Test
+    void dropsEntryWhoseContentNoLongerMatchesItsChecksum() throws IOException {
+        newCache(1000).store(1, "a.txt", "text/plain", bytes("hello"), null);
+        // Same size, different bytes: only the checksum, verified on the first hit of a process, catches it
+        Files.write(directory.resolve("1.bin"), bytes("jello"));
+
+        final DiskAttachmentCache restarted = newCache(1000);
+
+        assertFalse(restarted.get(1).isPresent());
+        assertFalse(Files.exists(directory.resolve("1.bin")));
+        assertFalse(Files.exists(directory.resolve("1.meta")));
+    }
+
+    @Test
+    void verifiesAgainstTheChecksumRecordedAtUpload() {
+        newCache(1000).store(1, "a.txt", "text/plain", bytes("hello"), sha256("hello"));
+        newCache(1000).store(2, "b.txt", "text/plain", bytes("hello"), sha256("not hello"));
+
+        final DiskAttachmentCache restarted = newCache(1000);
+
+        assertEquals(1, countPresent(restarted, 1));
+        assertEquals(0, countPresent(restarted, 2));
+    }
+
+    @Test
+    void dropsTruncatedEntry() throws IOException {
+        final DiskAttachmentCache cache = newCache(1000);
+        cache.store(1, "a.txt", "text/plain", bytes("hello"), null);
+        Files.write(directory.resolve("1.bin"), bytes("hel"));
+
+        assertFalse(cache.get(1).isPresent());
+        assertFalse(Files.exists(directory.resolve("1.meta")));
+    }
+
+    @Test
+    void discardsUnreadableMetadataOnStartup() throws IOException {
+        newCache(1000).store(1, "a.txt", "text/plain", bytes("hello"), null);
+        Files.writeString(directory.resolve("1.meta"), "size=not-a-number");
+
+        final DiskAttachmentCache restarted = newCache(1000);
+
+        assertFalse(restarted.get(1).isPresent());
+        assertFalse(Files.exists(directory.resolve("1.bin")));
+    }
+
+    private DiskAttachmentCache newCache(long maxTotalBytes) {
+        final AttachmentDiskCacheProperties properties = new AttachmentDiskCacheProperties();
+        properties.setDirectory(directory.toString());
+        properties.setMaxTotalSize(DataSize.ofBytes(maxTotalBytes));
+        final DiskAttachmentCache cache = new DiskAttachmentCache(properties);
+        try {
+            cache.loadIndex();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return cache;
+    }
+
+    private static int countPresent(DiskAttachmentCache cache, long... attachmentIds) {
+        int present = 0;
+        for (long attachmentId : attachmentIds) {
+            final Optional<FileAttachmentContent> content = cache.get(attachmentId);
+            if (content.isPresent()) {
+                present++;
+                closeQuietly(content.get());
+            }
+        }
+        return present;
+    }
+
+    private static void assertPresent(Optional<FileAttachmentContent> content) throws IOException {
+        assertTrue(content.isPresent());
+        content.get().close();
+    }
+
+    private static void closeQuietly(FileAttachmentContent content) {
+        try {
+            content.close();
+        } catch (IOException ignored) {
+            // test cleanup only
+        }
+    }
+
+    private static byte[] read(FileAttachmentContent content) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        content.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes(text)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
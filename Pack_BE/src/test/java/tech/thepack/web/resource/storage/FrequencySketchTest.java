@@ -0,0 +1,62 @@
+package tech.thepack.web.resource.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrequencySketchTest {
+
+    @Test
+    void countsIncrements() {
+        final FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(42);
+        }
+        sketch.increment(7);
+
+        assertEquals(5, sketch.frequency(42));
+        assertEquals(1, sketch.frequency(7));
+        assertEquals(0, sketch.frequency(1234));
+    }
+
+    @Test
+    void halvesCountersOnceTheSampleSizeIsReached() {
+        final FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < sketch.sampleSize() - 1; i++) {
+            sketch.increment(42);
+        }
+        assertEquals(sketch.sampleSize() - 1, sketch.frequency(42));
+
+        sketch.increment(42);
+
+        assertEquals(sketch.sampleSize() / 2, sketch.frequency(42));
+    }
+
+    @Test
+    void agesAgainAfterHalfASampleMore() {
+        final FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < sketch.sampleSize(); i++) {
+            sketch.increment(42);
+        }
+        // Aged once: sampleSize / 2 left, the next halving comes sampleSize / 2 increments later
+        for (int i = 0; i < sketch.sampleSize() / 2; i++) {
+            sketch.increment(42);
+        }
+
+        assertEquals(sketch.sampleSize() / 2, sketch.frequency(42));
+    }
+
+    @Test
+    void oldPopularityFadesBehindRecentAccesses() {
+        final FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(1);
+        }
+        for (int i = 0; i < sketch.sampleSize() * 3; i++) {
+            sketch.increment(2);
+        }
+
+        assertTrue(sketch.frequency(1) < 100 / 4, "frequency of 1 should have been halved at least twice");
+    }
+}
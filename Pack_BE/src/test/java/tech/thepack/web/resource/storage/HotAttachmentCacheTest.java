@@ -0,0 +1,110 @@
+package tech.thepack.web.resource.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import tech.thepack.core.resource.config.AttachmentCacheProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotAttachmentCacheTest {
+
+    private static final int ENTRY_BYTES = 40;
+
+    // Room for two entries of ENTRY_BYTES
+    private final HotAttachmentCache cache = newCache(100, 60);
+
+    @Test
+    void admitsWhileThereIsRoom() {
+        assertTrue(cache.offer(1, "a.txt", "text/plain", bytes(ENTRY_BYTES)).isPresent());
+        assertTrue(cache.offer(2, "b.txt", "text/plain", bytes(ENTRY_BYTES)).isPresent());
+
+        assertTrue(cache.get(1).isPresent());
+        assertTrue(cache.get(2).isPresent());
+        assertEquals(2L * ENTRY_BYTES, cache.usedBytes());
+    }
+
+    @Test
+    void rejectsCandidateNotRequestedMoreOftenThanTheCachedEntries() {
+        cache.offer(1, "a.txt", "text/plain", bytes(ENTRY_BYTES));
+        cache.offer(2, "b.txt", "text/plain", bytes(ENTRY_BYTES));
+
+        assertFalse(cache.offer(3, "c.txt", "text/plain", bytes(ENTRY_BYTES)).isPresent());
+        assertTrue(cache.get(1).isPresent());
+        assertTrue(cache.get(2).isPresent());
+    }
+
+    @Test
+    void evictsLeastFrequentlyUsedEntryForAPopularCandidate() {
+        cache.offer(1, "a.txt", "text/plain", bytes(ENTRY_BYTES));
+        cache.offer(2, "b.txt", "text/plain", bytes(ENTRY_BYTES));
+        cache.get(1);
+        for (int i = 0; i < 3; i++) {
+            cache.get(3);
+        }
+
+        assertTrue(cache.offer(3, "c.txt", "text/plain", bytes(ENTRY_BYTES)).isPresent());
+
+        assertTrue(cache.get(1).isPresent());
+        assertFalse(cache.get(2).isPresent());
+        assertTrue(cache.get(3).isPresent());
+        assertEquals(2L * ENTRY_BYTES, cache.usedBytes());
+    }
+
+    @Test
+    void neverExceedsTheByteBudget() {
+        for (long id = 1; id <= 50; id++) {
+            for (int i = 0; i < id; i++) {
+                cache.get(id);
+            }
+            cache.offer(id, id + ".txt", "text/plain", bytes(ENTRY_BYTES));
+            assertTrue(cache.usedBytes() <= 100, "used bytes " + cache.usedBytes());
+        }
+        // The most requested ones are kept
+        assertTrue(cache.get(50).isPresent());
+        assertTrue(cache.get(49).isPresent());
+    }
+
+    @Test
+    void ignoresFilesAboveTheEntryLimit() {
+        assertFalse(cache.accepts(61));
+        assertFalse(cache.offer(1, "big.bin", "application/octet-stream", bytes(61)).isPresent());
+        assertEquals(0, cache.usedBytes());
+    }
+
+    @Test
+    void evictionReleasesTheBudget() {
+        cache.offer(1, "a.txt", "text/plain", bytes(ENTRY_BYTES));
+
+        cache.evict(1);
+
+        assertFalse(cache.get(1).isPresent());
+        assertEquals(0, cache.usedBytes());
+    }
+
+    @Test
+    void servesTheCachedBytes() throws Exception {
+        final byte[] data = "hello".getBytes(StandardCharsets.UTF_8);
+        cache.offer(1, "a.txt", "text/plain", data);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.get(1).orElseThrow().writeTo(out);
+
+        assertEquals("hello", out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static HotAttachmentCache newCache(long maxTotalBytes, long maxEntryBytes) {
+        final AttachmentCacheProperties properties = new AttachmentCacheProperties();
+        properties.setMaxTotalSize(DataSize.ofBytes(maxTotalBytes));
+        properties.setMaxEntrySize(DataSize.ofBytes(maxEntryBytes));
+        return new HotAttachmentCache(properties);
+    }
+
+    private static byte[] bytes(int length) {
+        return new byte[length];
+    }
+}
@@ -12,6 +12,7 @@ export interface Resource {
     provider: Provider;
     roles: Role[];
     attachmentCount: number;
+    changeVersion: number;
 }
 
 export interface ResourceFormDataCore {
@@ -31,6 +32,14 @@ export interface AttachmentMetadata {
     uploadedAt: string;
 }
 
+export type ResourceChangeType = 'CREATED' | 'UPDATED' | 'DELETED';
+
+export interface ResourceChangedEvent {
+    type: ResourceChangeType;
+    resourceId: number;
+    resource?: Resource;
+}
+
 export interface ResourceFormData extends ResourceFormDataCore {
     files: File[];
 }
@@ -1,11 +1,38 @@
-import type {AttachmentMetadata, Resource, ResourceFormData} from '$lib/types/resource';
+import type {AttachmentMetadata, Resource, ResourceChangedEvent, ResourceFormData} from '$lib/types/resource';
 
 const API_BASE_URL = '/api/v1/resources';
 
-export async function listResources(): Promise<Resource[]> {
+export interface ResourceList {
+    resources: Resource[];
+    // Catalog version the list was read at, taken from the weak ETag W/"<version>"
+    version: string | null;
+}
+
+export async function listResources(): Promise<ResourceList> {
     const res = await fetch(API_BASE_URL);
     if (!res.ok) throw new Error('Failed to fetch resources');
-    return res.json();
+    const eTag = res.headers.get('ETag');
+    const version = eTag?.match(/^W\/"(\d+)"$/)?.[1] ?? null;
+    return {resources: await res.json(), version};
+}
+
+// Pass the version of the list already shown, the server then sends every change committed after it, none falls in the gap
+// between reading the list and subscribing. EventSource can only send Last-Event-ID on reconnects, hence the query parameter.
+// The browser reconnects on its own and sends Last-Event-ID, so the server replays whatever was missed.
+// onResync is called when the server could not replay (e.g. it restarted) and the whole list has to be fetched again.
+export function subscribeToResourceChanges(
+    sinceVersion: string | null,
+    onChange: (event: ResourceChangedEvent) => void,
+    onResync: () => void
+): () => void {
+    const url = sinceVersion !== null ? `${API_BASE_URL}/events?lastEventId=${sinceVersion}` : `${API_BASE_URL}/events`;
+    const source = new EventSource(url);
+    const handleChange = (message: MessageEvent) => onChange(JSON.parse(message.data));
+    source.addEventListener('resource-created', handleChange);
+    source.addEventListener('resource-updated', handleChange);
+    source.addEventListener('resource-deleted', handleChange);
+    source.addEventListener('resync', onResync);
+    return () => source.close();
 }
 
 export async function uploadResource(data: ResourceFormData): Promise<Resource> {